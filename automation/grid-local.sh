@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Starts a standalone Selenium Grid on localhost for -Ddriver.mode=grid runs (foreground; Ctrl+C stops it).
+# The server jar matches the suite's Selenium version and is cached under ~/.cache/sportsbook-search.
+# Browsers installed on this machine are offered as slots; drivers come from Selenium Manager.
+#
+#   ./grid-local.sh [max sessions, default 4] [port, default 4444]
+#   mvn test -Ddriver.mode=grid -Dgrid.browsers=chrome,firefox -Dparallel.enabled=true -Dbase.url=local
+set -euo pipefail
+cd "$(dirname "$0")"
+
+sessions="${1:-4}"
+port="${2:-4444}"
+version="$(sed -n 's:.*<selenium.version>\(.*\)</selenium.version>.*:\1:p' pom.xml)"
+cache="${HOME}/.cache/sportsbook-search"
+jar="${cache}/selenium-server-${version}.jar"
+
+if [[ ! -f "$jar" ]]; then
+  mkdir -p "$cache"
+  echo "downloading selenium-server ${version}"
+  curl -fsSL -o "${jar}.part" \
+    "https://github.com/SeleniumHQ/selenium/releases/download/selenium-${version}/selenium-server-${version}.jar"
+  mv "${jar}.part" "$jar"
+fi
+
+exec java -jar "$jar" standalone --port "$port" --max-sessions "$sessions" --override-max-sessions true \
+  --selenium-manager true --session-timeout 600
@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Runs the suite as N duration-balanced shards in parallel on this machine, then merges the reports.
+# On CI, run one "mvn test -Dshard.index=i -Dshard.count=N" per node instead and call the merger
+# once all shard directories are collected under target/.
+#
+#   ./run-shards.sh 4 [extra mvn args, e.g. -Dbase.url=local]
+set -euo pipefail
+cd "$(dirname "$0")"
+
+count="${1:-2}"
+shift || true
+
+rm -rf target/shard-*
+run_id="$(date -u +%Y%m%dT%H%M%SZ)" # one run in the run history, however many shards
+mvn -B -q test-compile "$@"
+
+pids=()
+for ((i = 0; i < count; i++)); do
+  mvn -B surefire:test -Dshard.index="$i" -Dshard.count="$count" -Dshard.reports="$PWD/target/shard-$i/surefire-reports" \
+    -Dhistory.runId="$run_id" "$@" > "target/shard-$i.log" 2>&1 &
+  pids+=("$!")
+done
+
+status=0
+for i in "${!pids[@]}"; do
+  if ! wait "${pids[$i]}"; then
+    echo "shard $i failed, see target/shard-$i.log"
+    status=1
+  fi
+done
+
+mvn -B -q dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+java -cp "target/test-classes:$(cat target/test-classpath.txt)" support.ShardReportMerger target
+exit "$status"
@@ -1,17 +1,25 @@
 package pages;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.ExpectedConditions;
+import support.Config;
+import support.ElementCache;
+import support.PageTelemetry;
+import support.Readiness;
+import support.SessionSnapshot;
 import support.Waits;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class HomePage {
     private final WebDriver driver;
+    private final ElementCache elements;
 
     public HomePage(WebDriver driver) {
         this.driver = driver;
+        this.elements = new ElementCache(driver);
     }
 
     // Search input field
@@ -43,67 +51,110 @@ public class HomePage {
         if (!url.contains("/sportsbook")) {
             url = url.endsWith("/") ? url + "sportsbook" : url + "/sportsbook";
         }
-        driver.get(url);
+        boolean telemetry = PageTelemetry.enabled();
+        if (telemetry) PageTelemetry.arm(driver);
 
-        sleep(1000);
+        // Later scenarios on this worker reuse the first one's consent cookies, storage and route.
+        if (!SessionSnapshot.restore(driver, url, SEARCH_TRIGGERS, 10_000)) {
+            long started = System.nanoTime();
+            driver.get(url);
 
-        dismissCookiesIfPresent(8);
+            Readiness.documentReady(driver, 10);
 
-        try {
-            ((JavascriptExecutor) driver).executeScript("window.scrollTo(0,0);");
-        } catch (Exception ignored) {}
+            dismissCookiesIfPresent(8);
+
+            try {
+                ((JavascriptExecutor) driver).executeScript("window.scrollTo(0,0);");
+            } catch (Exception ignored) {}
+
+            SessionSnapshot.capture(driver, url, started);
+        }
+
+        if (telemetry) PageTelemetry.pageLoaded(driver);
     }
 
     public void focusSearch(int timeoutSec) {
-        // Ensure overlay is open
+        // Ensure overlay is open; a freshly opened overlay means fresh input/clear elements
         openSearchOverlay(timeoutSec);
+        elements.invalidate();
 
-        WebElement input = Waits.waitFor(driver, timeoutSec,
-                ExpectedConditions.visibilityOfElementLocated(SEARCH_INPUT));
-        input.click();
+        visibleInput(timeoutSec);
+        if (PageTelemetry.enabled()) PageTelemetry.overlayOpened(driver);
+        elements.use(SEARCH_INPUT, el -> { el.click(); return null; });
     }
 
     public void typeQuery(String text, int t) {
-        WebElement el = Waits.waitFor(driver, t,
-                ExpectedConditions.visibilityOfElementLocated(SEARCH_INPUT));
-        el.clear();
-        el.sendKeys(text);
+        visibleInput(t);
+        elements.use(SEARCH_INPUT, el -> {
+            el.clear();
+            el.sendKeys(text);
+            return null;
+        });
+    }
+
+    /** Types one character per sendKeys, {@code keyDelayMs} apart, like a user typing. */
+    public void typeQueryPerKey(String text, long keyDelayMs, int t) {
+        visibleInput(t);
+        elements.use(SEARCH_INPUT, el -> { el.clear(); return null; });
+        for (int i = 0; i < text.length(); i++) {
+            String key = String.valueOf(text.charAt(i));
+            elements.use(SEARCH_INPUT, el -> { el.sendKeys(key); return null; });
+            if (i + 1 < text.length() && keyDelayMs > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(keyDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
     }
 
     public void submitEnter(int t) {
-        WebElement el = Waits.waitFor(driver, t,
-                ExpectedConditions.visibilityOfElementLocated(SEARCH_INPUT));
-        el.sendKeys(Keys.ENTER);
+        visibleInput(t);
+        elements.use(SEARCH_INPUT, el -> { el.sendKeys(Keys.ENTER); return null; });
+    }
+
+    /** Waits for the search input to be displayed; reuses the cached element once it has been found. */
+    private void visibleInput(int timeoutSec) {
+        Waits.waitFor(driver, timeoutSec, d -> elements.use(SEARCH_INPUT, WebElement::isDisplayed));
     }
 
     private void openSearchOverlay(int timeoutSec) {
-        for (By trigger : SEARCH_TRIGGERS) {
+        // One in-page probe over all triggers; resolves as soon as any is visible.
+        List<By> remaining = SEARCH_TRIGGERS;
+        while (!remaining.isEmpty()) {
+            Readiness.Match m = Readiness.firstVisible(driver, timeoutSec * 1000L, remaining);
+            if (m == null) break;
             try {
-                WebElement btn = Waits.firstPresent(driver, 2, trigger);
-                if (btn != null && isInteractable(btn)) {
+                WebElement btn = m.element();
+                if (isInteractable(btn)) {
                     btn.click();
-                    Waits.waitFor(driver, timeoutSec,
-                            ExpectedConditions.presenceOfElementLocated(OVERLAY_ROOT));
-                    return;
+                    if (Readiness.firstPresent(driver, timeoutSec * 1000L, List.of(OVERLAY_ROOT)) != null) return;
                 }
             } catch (Exception ignored) {}
+            remaining = remaining.subList(m.index() + 1, remaining.size()); // try the next kind of trigger
         }
         throw new NoSuchElementException("Search trigger not found in header.");
     }
 
     private void dismissCookiesIfPresent(int timeoutSec) {
-        long end = System.currentTimeMillis() + timeoutSec * 1000L;
-        for (By by : COOKIE_ACCEPT_BUTTONS) {
+        // Banner or header, whichever renders first. The consent script is injected late, so once
+        // the header is up we keep waiting for the banner only until OneTrust has settled without one
+        // (readiness.consentGraceMs is just the ceiling for a script that never reports back).
+        List<By> bannerOrHeader = new ArrayList<>(COOKIE_ACCEPT_BUTTONS);
+        bannerOrHeader.addAll(SEARCH_TRIGGERS);
+        Readiness.Match m = Readiness.firstVisible(driver, timeoutSec * 1000L, bannerOrHeader);
+        if (m != null && m.index() >= COOKIE_ACCEPT_BUTTONS.size()) {
+            m = Readiness.consentBanner(driver, Config.getInt("readiness.consentGraceMs", 1500), COOKIE_ACCEPT_BUTTONS);
+        }
+        if (m != null) {
             try {
-                WebElement b = Waits.firstPresent(driver, 1, by);
-                if (b != null && b.isDisplayed()) {
-                    Waits.waitFor(driver, 2, ExpectedConditions.elementToBeClickable(b));
-                    b.click();
-                    sleep(300);
-                    return;
-                }
+                WebElement b = m.element();
+                b.click();
+                Readiness.untilHidden(driver, b, 2000);
+                return;
             } catch (Exception ignored) {}
-            if (System.currentTimeMillis() > end) break;
         }
         try {
             driver.switchTo().activeElement().sendKeys(Keys.ESCAPE);
@@ -119,20 +170,14 @@ public class HomePage {
         }
     }
 
-    private static void sleep(long ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException ignored) {}
-    }
-
     /* -----------------  ⬇⬇⬇ ADD for TC-8  ----------------- */
 
     /** Clicks the “X” icon to clear the search and waits until the input becomes empty. */
     public void clearSearchViaX(int t) {
         // Ensure overlay/input visible
         focusSearch(Math.max(3, t));
-        WebElement x = Waits.waitFor(driver, t, ExpectedConditions.elementToBeClickable(CLEAR_X));
-        x.click();
+        Waits.waitFor(driver, t, d -> elements.use(CLEAR_X, x -> x.isDisplayed() && x.isEnabled()));
+        elements.use(CLEAR_X, x -> { x.click(); return null; });
         // Wait until value is empty
         Waits.waitFor(driver, t, d -> getSearchValue().isEmpty());
     }
@@ -140,8 +185,7 @@ public class HomePage {
     /** Returns the current value in the search input (empty string if not present). */
     public String getSearchValue() {
         try {
-            WebElement input = driver.findElement(SEARCH_INPUT);
-            String v = input.getAttribute("value");
+            String v = elements.use(SEARCH_INPUT, input -> input.getAttribute("value"));
             return v == null ? "" : v;
         } catch (NoSuchElementException e) {
             return "";
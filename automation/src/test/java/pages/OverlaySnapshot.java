@@ -0,0 +1,66 @@
+package pages;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Everything the search steps assert on, read from the active CDK search pane in one
+ * executeScript round-trip (see {@link ResultsPage#snapshot()}).
+ *
+ * @param activePane       id of the visible/topmost search pane, null when no pane is displayed
+ * @param visibleRows      number of visible result rows in that pane
+ * @param resultsCountText text of the visible "Search results (N)" header, null if not shown
+ * @param noResultsText    text of the visible "no results" banner, null if not shown (falls back to
+ *                         any visible .search-no-results box, which includes the history message)
+ * @param noResultsBanner  true when the dedicated no-results dropdown banner is visible
+ * @param historyEmpty     true when the pane shows "Search History is empty"
+ * @param searchValue      current value of the search input ("" when absent)
+ * @param clearIconPresent true while the ✖ icon is in the DOM
+ */
+public record OverlaySnapshot(String activePane,
+                              int visibleRows,
+                              String resultsCountText,
+                              String noResultsText,
+                              boolean noResultsBanner,
+                              boolean historyEmpty,
+                              String searchValue,
+                              boolean clearIconPresent) {
+
+    private static final Pattern COUNT = Pattern.compile("\\((\\d+)\\)");
+
+    static OverlaySnapshot from(Object raw) {
+        if (!(raw instanceof Map)) {
+            return new OverlaySnapshot(null, 0, null, null, false, false, "", false);
+        }
+        Map<?, ?> m = (Map<?, ?>) raw;
+        Object value = m.get("searchValue");
+        return new OverlaySnapshot(
+                (String) m.get("activePane"),
+                m.get("visibleRows") == null ? 0 : ((Number) m.get("visibleRows")).intValue(),
+                (String) m.get("resultsCountText"),
+                (String) m.get("noResultsText"),
+                Boolean.TRUE.equals(m.get("noResultsBanner")),
+                Boolean.TRUE.equals(m.get("historyEmpty")),
+                value == null ? "" : value.toString(),
+                Boolean.TRUE.equals(m.get("clearIconPresent")));
+    }
+
+    public boolean hasOverlay() {
+        return activePane != null;
+    }
+
+    /** Overlay "loaded": count header, visible rows or the no-results banner (not the history box). */
+    public boolean hasContent() {
+        return hasOverlay() && (resultsCountText != null || visibleRows > 0 || noResultsBanner);
+    }
+
+    /** N from "Search results (N)"; 1 if only rows are visible; 0 otherwise. */
+    public int resultCount() {
+        if (resultsCountText != null) {
+            Matcher m = COUNT.matcher(resultsCountText);
+            if (m.find()) return Integer.parseInt(m.group(1));
+        }
+        return visibleRows > 0 ? 1 : 0;
+    }
+}
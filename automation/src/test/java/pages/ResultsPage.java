@@ -1,107 +1,129 @@
 package pages;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import support.ElementCache;
+import support.Readiness;
+import support.WaitEngine;
 
 import java.time.Duration;
-import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 public class ResultsPage {
 
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final WebDriver driver;
-    private final WebDriverWait wait;
+    private final Duration timeout;
+    private final ElementCache elements;
 
     public ResultsPage(WebDriver driver, int timeoutSec) {
         this.driver = driver;
-        this.wait  = new WebDriverWait(driver, Duration.ofSeconds(timeoutSec));
+        this.timeout = Duration.ofSeconds(timeoutSec);
+        this.elements = new ElementCache(driver);
     }
 
     /* ---------------- Overlay-scoped locators ---------------- */
 
     /** ALL Angular CDK search panes (id like cdk-overlay-10). We’ll pick the visible/topmost one. */
-    private static final By OVERLAY_PANES = By.cssSelector(
-            ".cdk-overlay-container .cdk-overlay-pane.sports-search-panel"
-    );
+    static final String OVERLAY_PANES = ".cdk-overlay-container .cdk-overlay-pane.sports-search-panel";
 
     /** Core controls inside the overlay */
     private static final By SEARCH_INPUT   = By.id("search-input");
-    private static final By RESULTS_COUNT  = By.cssSelector(".search-results-count");
-    private static final By NO_RESULTS_BOX = By.cssSelector(".search-no-results");
+    private static final String RESULTS_COUNT  = ".search-results-count";
+    private static final String NO_RESULTS_BOX = ".search-no-results";
     private static final By CLEAR_X        = By.cssSelector(".search-input__icon--clear");
 
     /**
      * Result rows *inside the overlay only* and definitely visible.
      * Guard with :not(.search-dropdown__item--hidden) because the app keeps hidden buckets in DOM.
      */
-    private static final By VISIBLE_RESULT_ROWS = By.cssSelector(
-            ".search-dropdown__item:not(.search-dropdown__item--hidden)"
-    );
+    static final String VISIBLE_RESULT_ROWS =
+            ".search-dropdown__item:not(.search-dropdown__item--hidden)";
 
     /** A more specific selector for the visible “no results” banner inside the active dropdown. */
-    private static final By VISIBLE_NO_RESULTS = By.cssSelector(
-            ".search-dropdown.search-dropdown--no-results:not(.search-dropdown__item--hidden) .search-no-results"
-    );
+    private static final String VISIBLE_NO_RESULTS =
+            ".search-dropdown.search-dropdown--no-results:not(.search-dropdown__item--hidden) .search-no-results";
+
+    /**
+     * One round-trip read of the overlay state. Same rules as the old per-element helpers:
+     * last displayed pane wins, rows/banners must be visible, no-results falls back from the specific
+     * banner to any banner in the pane to any banner in any visible pane (pane id can flip mid-poll).
+     */
+    private static final String SNAPSHOT_JS =
+            "var sel = arguments[0];"
+          + Readiness.VISIBLE_FN
+          + "function norm(t) { return (t || '').replace(/\\u00A0/g, ' ').replace(/\\s+/g, ' ').trim(); }"
+          + "function firstVisible(scope, css) {"
+          + "  var els = scope.querySelectorAll(css);"
+          + "  for (var i = 0; i < els.length; i++) if (visible(els[i])) return els[i];"
+          + "  return null;"
+          + "}"
+          + "var input = document.getElementById(sel.input);"
+          + "var snap = { activePane: null, visibleRows: 0, resultsCountText: null, noResultsText: null, noResultsBanner: false,"
+          + "  historyEmpty: false, searchValue: input ? (input.value || '') : '',"
+          + "  clearIconPresent: !!document.querySelector(sel.clearX) };"
+          + "var panes = document.querySelectorAll(sel.panes), root = null;"
+          + "for (var i = 0; i < panes.length; i++) if (visible(panes[i])) root = panes[i];"
+          + "if (!root) return snap;"
+          + "snap.activePane = root.id || '';"
+          + "var rows = root.querySelectorAll(sel.rows);"
+          + "for (var r = 0; r < rows.length; r++) if (visible(rows[r])) snap.visibleRows++;"
+          + "var count = root.querySelector(sel.count);"
+          + "if (visible(count)) snap.resultsCountText = norm(count.innerText);"
+          + "var banner = firstVisible(root, sel.visibleNoResults);"
+          + "snap.noResultsBanner = !!banner;"
+          + "banner = banner || firstVisible(root, sel.noResults);"
+          + "if (!banner) {"
+          + "  for (var p = 0; p < panes.length && !banner; p++) if (visible(panes[p])) banner = firstVisible(panes[p], sel.noResults);"
+          + "}"
+          + "if (banner) snap.noResultsText = norm(banner.innerText);"
+          + "var boxes = root.querySelectorAll(sel.noResults);"
+          + "for (var b = 0; b < boxes.length; b++) {"
+          + "  if (visible(boxes[b]) && norm(boxes[b].innerText).toLowerCase().indexOf('history is empty') >= 0) snap.historyEmpty = true;"
+          + "}"
+          + "return snap;";
+
+    private static final Map<String, String> SELECTORS = Map.of(
+            "panes", OVERLAY_PANES,
+            "input", "search-input",
+            "clearX", ".search-input__icon--clear",
+            "rows", VISIBLE_RESULT_ROWS,
+            "count", RESULTS_COUNT,
+            "noResults", NO_RESULTS_BOX,
+            "visibleNoResults", VISIBLE_NO_RESULTS);
 
     /* ---------------- Public API ---------------- */
 
+    /** Current overlay state in a single executeScript call. */
+    public OverlaySnapshot snapshot() {
+        OverlaySnapshot s = OverlaySnapshot.from(((JavascriptExecutor) driver).executeScript(SNAPSHOT_JS, SELECTORS));
+        elements.onGeneration(s.activePane()); // new pane id = rebuilt overlay, cached controls are gone
+        return s;
+    }
+
     /** Wait for overlay + (rows OR count OR no-results) to appear, all overlay-scoped. */
     public void waitLoaded() {
-        wait.until(drv -> activeOverlay() != null); // at least one visible pane exists
-
-        ExpectedCondition<Boolean> overlayHasContent = drv -> {
-            WebElement root = activeOverlay();
-            if (root == null) return false;
-
-            // Any of these is enough to say the overlay "loaded":
-            if (isDisplayedInside(root, RESULTS_COUNT))        return true;          // e.g., "Search results (9)"
-            if (hasAnyVisibleRow(root))                        return true;          // visible rows
-            if (visibleNoResultsElement(root) != null)         return true;          // “There are no results...”
-            return false;
-        };
-        wait.until(overlayHasContent);
+        until("ResultsPage.waitLoaded", timeout, drv -> snapshot().hasContent());
     }
 
     /** True iff visible result rows exist in the overlay. */
     public boolean hasResultsRowsVisible() {
-        WebElement root = activeOverlay();
-        return root != null && hasAnyVisibleRow(root);
+        return snapshot().visibleRows() > 0;
     }
 
     /** Wait for the friendly “no results” message in the current overlay. */
     public boolean waitNoResultsMessage(int timeoutSec) {
-        WebDriverWait w = new WebDriverWait(driver, Duration.ofSeconds(timeoutSec));
         try {
-            WebElement banner = w.until(drv -> {
-                WebElement root = activeOverlay();
-                if (root == null) return null;
-
-                // 1) Preferred: a visible banner inside an active "no-results" dropdown
-                WebElement vis = visibleNoResultsElement(root);
-                if (vis != null) return vis;
-
-                // 2) Fallback: any visible .search-no-results under the active pane
-                List<WebElement> any = root.findElements(NO_RESULTS_BOX);
-                for (WebElement e : any) if (isDisplayed(e)) return e;
-
-                // 3) Last resort: scan all panes (if overlay id flips between polls)
-                for (WebElement pane : driver.findElements(OVERLAY_PANES)) {
-                    if (!isDisplayed(pane)) continue;
-                    List<WebElement> nr = pane.findElements(NO_RESULTS_BOX);
-                    for (WebElement e : nr) if (isDisplayed(e)) return e;
-                }
-                return null;
-            });
-
-            String text = normalize(banner.getText());
             // e.g. "There are no results that match your search. Try again."
             // Allow minor whitespace/case differences.
-            return text.contains("no results")
-                    && text.contains("match your")
-                    && text.contains("search");
+            return until("ResultsPage.waitNoResultsMessage", Duration.ofSeconds(timeoutSec), drv -> {
+                String text = normalize(snapshot().noResultsText());
+                return text.contains("no results")
+                        && text.contains("match your")
+                        && text.contains("search");
+            });
         } catch (TimeoutException e) {
             return false;
         }
@@ -109,34 +131,24 @@ public class ResultsPage {
 
     /** Wait for “Search History is empty” in the overlay (used by Scenario 3). */
     public boolean waitHistoryEmpty(int timeoutSec) {
-        WebDriverWait w = new WebDriverWait(driver, Duration.ofSeconds(timeoutSec));
-        return Boolean.TRUE.equals(w.until(drv -> {
-            WebElement root = activeOverlay();
-            if (root == null) return false;
-            for (WebElement box : root.findElements(NO_RESULTS_BOX)) {
-                if (isDisplayed(box) && normalize(box.getText()).contains("history is empty")) {
-                    return true;
-                }
-            }
-            return false;
-        }));
+        return Boolean.TRUE.equals(until("ResultsPage.waitHistoryEmpty", Duration.ofSeconds(timeoutSec),
+                drv -> snapshot().historyEmpty()));
     }
 
     /** Click the ✖ and wait for the input to clear (or icon to vanish). */
     public void clickClearX() {
-        WebElement x = wait.until(ExpectedConditions.elementToBeClickable(CLEAR_X));
-        x.click();
-        wait.until(drv -> {
-            String v = getSearchBoxValue();
-            boolean empty = v == null || v.isEmpty();
-            boolean xGone = drv.findElements(CLEAR_X).isEmpty();
-            return empty || xGone;
+        until("ResultsPage.clickClearX>clickable", timeout,
+                drv -> elements.use(CLEAR_X, x -> x.isDisplayed() && x.isEnabled()));
+        elements.use(CLEAR_X, x -> { x.click(); return null; });
+        until("ResultsPage.clickClearX>cleared", timeout, drv -> {
+            OverlaySnapshot s = snapshot();
+            return s.searchValue().isEmpty() || !s.clearIconPresent();
         });
     }
 
     public String getSearchBoxValue() {
         try {
-            return driver.findElement(SEARCH_INPUT).getAttribute("value");
+            return elements.use(SEARCH_INPUT, input -> input.getAttribute("value"));
         } catch (NoSuchElementException e) {
             return "";
         }
@@ -144,72 +156,20 @@ public class ResultsPage {
 
     /** Parse N from “Search results (N)” (overlay-scoped). 0 if absent. */
     public int getResultCountVisible() {
-        WebElement root = activeOverlay();
-        if (root != null) {
-            WebElement el = first(root, RESULTS_COUNT);
-            if (isDisplayed(el)) {
-                Matcher m = Pattern.compile("\\((\\d+)\\)").matcher(el.getText());
-                if (m.find()) return Integer.parseInt(m.group(1));
-            }
-        }
-        // fallback: any visible row?
-        return hasResultsRowsVisible() ? 1 : 0;
+        return snapshot().resultCount();
     }
 
     /* ---------------- Helpers ---------------- */
 
-    /** Find the *visible/topmost* overlay pane (there can be several; we use the last displayed). */
-    private WebElement activeOverlay() {
-        List<WebElement> panes = driver.findElements(OVERLAY_PANES);
-        WebElement candidate = null;
-        for (WebElement p : panes) {
-            if (isDisplayed(p)) candidate = p;  // last displayed wins
-        }
-        return candidate;
-    }
-
-    private WebElement visibleNoResultsElement(WebElement root) {
-        try {
-            List<WebElement> els = root.findElements(VISIBLE_NO_RESULTS);
-            for (WebElement e : els) if (isDisplayed(e)) return e;
-        } catch (StaleElementReferenceException ignored) {}
-        return null;
-    }
-
-    private boolean hasAnyVisibleRow(WebElement root) {
-        try {
-            List<WebElement> rows = root.findElements(VISIBLE_RESULT_ROWS);
-            for (WebElement r : rows) {
-                if (isDisplayed(r)) return true;
-            }
-        } catch (StaleElementReferenceException ignored) {}
-        return false;
-    }
-
-    private boolean isDisplayedInside(WebElement root, By by) {
-        WebElement el = first(root, by);
-        return isDisplayed(el);
-    }
-
-    private boolean isDisplayed(WebElement el) {
-        if (el == null) return false;
-        try {
-            return el.isDisplayed() && el.getSize().height > 0 && el.getSize().width > 0;
-        } catch (StaleElementReferenceException e) {
-            return false;
-        }
-    }
-
-    private WebElement first(WebElement scope, By by) {
-        if (scope == null) return null;
-        try { return scope.findElement(by); }
-        catch (NoSuchElementException e) { return null; }
+    private <T> T until(String key, Duration timeout, Function<? super WebDriver, T> condition) {
+        return WaitEngine.until(driver, key, timeout, condition);
     }
 
-    private static String normalize(String s) {
+    /** Lower-cased, NBSP-free, single-spaced text. Package-private for the benchmarks module. */
+    static String normalize(String s) {
         if (s == null) return "";
-        return s.replace('\u00A0',' ') // NBSP → space
-                .replaceAll("\\s+", " ")
+        return WHITESPACE.matcher(s.replace('\u00A0',' ')) // NBSP → space
+                .replaceAll(" ")
                 .trim()
                 .toLowerCase();
     }
@@ -1,7 +1,7 @@
 package pages;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.ExpectedConditions;
+import support.ElementCache;
 import support.Waits;
 
 import java.util.List;
@@ -9,10 +9,12 @@ import java.util.List;
 public class SearchSuggestions {
     private final WebDriver driver;
     private final int t;
+    private final ElementCache elements;
 
     public SearchSuggestions(WebDriver d, int timeout) {
         this.driver = d;
         this.t = timeout;
+        this.elements = new ElementCache(d);
     }
 
     private By[] panel = new By[]{
@@ -26,17 +28,29 @@ public class SearchSuggestions {
     };
 
     public boolean isVisible() {
-        WebElement p = Waits.firstPresent(driver, t, panel);
+        WebElement p = panelElement();
         return p != null && p.isDisplayed();
     }
 
     public void clickFirst() {
-        WebElement container = Waits.firstPresent(driver, t, panel);
+        WebElement container = panelElement();
         if (container == null) throw new NoSuchElementException("Suggestions panel not visible.");
-        List<WebElement> list = driver.findElements(items[0]);
+        List<WebElement> list = elements.all(items[0]);
         if (list.isEmpty()) throw new NoSuchElementException("No suggestion items found.");
-        Waits.waitFor(driver, t, ExpectedConditions.elementToBeClickable(list.get(0)));
-        list.get(0).click();
+        WebElement first = list.get(0);
+        Waits.waitFor(driver, t, d -> first.isDisplayed() && first.isEnabled());
+        first.click();
+    }
+
+    /** The panel is kept in the DOM between keystrokes, so cache it once found and re-find only when stale. */
+    private WebElement panelElement() {
+        for (By by : panel) {
+            try {
+                if (elements.use(by, WebElement::isDisplayed)) return elements.get(by);
+            } catch (NoSuchElementException ignored) {}
+        }
+        elements.invalidate();
+        return Waits.firstPresent(driver, t, panel);
     }
 }
 
@@ -1,7 +1,15 @@
 package runner;
 
-import io.cucumber.junit.platform.engine.Cucumber;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectClasspathResource;
+import org.junit.platform.suite.api.Suite;
 
-@Cucumber
+/**
+ * Suite entry point picked up by surefire. Parallelism is configured in
+ * junit-platform.properties and can be overridden with -Dparallel.enabled / -Dparallel.workers.
+ */
+@Suite
+@IncludeEngines("cucumber")
+@SelectClasspathResource("features")
 public class TestRunner {
 }
@@ -0,0 +1,41 @@
+package steps;
+
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+import support.BrowserProfile;
+import support.BulkSearch;
+import support.Config;
+import support.DriverManager;
+import support.FixtureServer;
+import support.QueryCorpus;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class BulkSearchSteps {
+
+    BulkSearch.Result result;
+
+    /* ---- Bulk search over a query corpus (-Dbulk.corpus, -Dbulk.sessions) ---- */
+    @When("I run every query from the bulk search corpus")
+    public void i_run_every_query_from_the_bulk_search_corpus() {
+        Path corpus = Paths.get(Config.get("bulk.corpus", "src/test/resources/corpus/queries.csv"));
+        Path out = Paths.get(Config.get("bulk.results", "target/bulk-search-results.csv"));
+        result = new BulkSearch(FixtureServer.baseUrl(), BrowserProfile.fromConfig())
+                .run(QueryCorpus.open(corpus), DriverManager.getDriver(), Config.getInt("bulk.sessions", Config.workers()), out);
+    }
+
+    @Then("the bulk search throughput should be reported")
+    public void the_bulk_search_throughput_should_be_reported() {
+        Assertions.assertTrue(result.queries > 0, "Bulk search corpus was empty.");
+        Assertions.assertTrue(result.queriesPerMinute() > 0, "Bulk search throughput was not measured.");
+    }
+
+    @Then("every bulk query should return its expected result count")
+    public void every_bulk_query_should_return_its_expected_result_count() {
+        Assertions.assertEquals(0, result.errors, "Bulk queries failed, see bulk-search-results.csv");
+        Assertions.assertEquals(0, result.mismatches, "Bulk queries returned unexpected counts, see bulk-search-results.csv");
+        Assertions.assertEquals(0, result.skippedLines, "Bulk search corpus has unreadable lines, see the [bulk] log.");
+    }
+}
@@ -1,29 +1,101 @@
 package steps;
 
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.AfterStep;
 import io.cucumber.java.Before;
-import io.github.bonigarcia.wdm.WebDriverManager;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
+import io.cucumber.java.BeforeAll;
+import io.cucumber.java.Scenario;
+import support.BrowserProfile;
+import support.CommandProfiler;
+import support.DriverBinary;
 import support.DriverManager;
+import support.ElementCache;
+import support.FailureCapture;
+import support.FixtureServer;
+import support.Grid;
+import support.ImpactFilter;
+import support.PageTelemetry;
+import support.RunHistory;
+import support.SearchLatency;
+import support.SessionSnapshot;
+import support.SideChannel;
+
+import java.util.List;
 
 public class Hooks {
 
+    /** Steps finished in this scenario (cucumber creates the glue per scenario). */
+    private int step;
+
+    @BeforeAll
+    public static void beforeSuite() {
+        if (!Grid.enabled()) DriverBinary.resolve(); // grid nodes bring their own drivers
+        FixtureServer.baseUrl(); // starts the local stand-in when -Dbase.url=local
+    }
+
     @Before
-    public void beforeScenario() {
-        WebDriverManager.chromedriver().setup();
-        WebDriver driver = new ChromeDriver();
-        driver.manage().window().maximize();
-        DriverManager.setDriver(driver);
+    public void beforeScenario(Scenario scenario) {
+        FailureCapture.start();
+        DriverManager.startDriver(BrowserProfile.forTags(scenario.getSourceTagNames()));
+        if (CommandProfiler.enabled()) {
+            DriverManager.decorate(CommandProfiler::decorate);
+        }
+    }
+
+    @AfterStep
+    public void afterStep(Scenario scenario) {
+        FailureCapture.record(DriverManager.getRawDriver(), "after step " + (++step));
     }
 
     @After
-    public void afterScenario() {
-        WebDriver driver = DriverManager.getDriver();
+    public void afterScenario(Scenario scenario) {
+        try {
+            if (scenario.isFailed()) captureFailure(scenario);
+            else FailureCapture.discard();
+            byte[] telemetry = PageTelemetry.finishScenario();
+            if (telemetry != null) scenario.attach(telemetry, "application/json", "page telemetry");
+        } finally {
+            try {
+                DriverManager.quitDriver();
+            } finally {
+                CommandProfiler.finishScenario(scenario.getName());
+            }
+        }
+    }
+
+    private static void captureFailure(Scenario scenario) {
         try {
-            if (driver != null) driver.quit();
+            byte[] png = FailureCapture.onFailure(DriverManager.getRawDriver(), scenario.getName());
+            if (png != null) scenario.attach(png, "image/png", "failure");
+        } catch (IllegalStateException e) {
+            FailureCapture.discard();
+            System.out.printf("[capture] nothing to capture for '%s': %s%n", scenario.getName(), e.getMessage());
+        }
+    }
+
+    @AfterAll
+    public static void afterSuite() {
+        SideChannel.submit("search latency report", SearchLatency::writeReport);
+        SideChannel.submit("command profile report", CommandProfiler::writeReport);
+        SideChannel.submit("page telemetry report", PageTelemetry::writeReport);
+        RunHistory.close();
+        try {
+            DriverManager.shutdown();
+            FixtureServer.stop();
         } finally {
-            DriverManager.removeDriver();
+            SideChannel.flush();
+            System.out.println("[ElementCache] " + ElementCache.summary());
+            if (ImpactFilter.enabled()) System.out.println("[impact] " + ImpactFilter.summary());
+            if (!SessionSnapshot.summary().isEmpty()) System.out.println("[snapshot] " + SessionSnapshot.summary());
+        }
+        List<String> overBudget = SearchLatency.budgetViolations();
+        if (!overBudget.isEmpty()) {
+            throw new AssertionError("Search latency budgets exceeded:\n  " + String.join("\n  ", overBudget));
+        }
+        List<String> heavier = PageTelemetry.regressions();
+        if (!heavier.isEmpty()) {
+            throw new AssertionError("Page telemetry regressed against the baseline:\n  " + String.join("\n  ", heavier));
         }
     }
 }
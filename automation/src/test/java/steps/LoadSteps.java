@@ -0,0 +1,104 @@
+package steps;
+
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+import org.openqa.selenium.WebDriver;
+import pages.HomePage;
+import pages.ResultsPage;
+import support.Config;
+import support.DriverManager;
+import support.FixtureServer;
+import support.LoadGenerator;
+import support.QueryCorpus;
+import support.TrafficCapture;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LoadSteps {
+
+    TrafficCapture.Journey journey;
+    LoadGenerator.Result result;
+
+    /* ---- Browserless load (-Dload.rate, -Dload.durationSec, -Dload.corpus, -Dload.journey) ---- */
+    @Given("a search journey for {string} is captured from a browser session")
+    public void a_search_journey_is_captured(String query) {
+        Path saved = Paths.get(Config.get("load.journey", "target/load/journey.json"));
+        if (Config.getBool("load.reuseJourney", false) && Files.isRegularFile(saved)) {
+            journey = TrafficCapture.Journey.load(saved);
+            System.out.printf("[load] reusing %d captured calls from %s%n", journey.calls.size(), saved);
+            return;
+        }
+        WebDriver driver = DriverManager.getDriver();
+        String scriptId = TrafficCapture.install(DriverManager.getRawDriver());
+        HomePage home = new HomePage(driver);
+        home.open(FixtureServer.baseUrl());
+        home.focusSearch(15);
+        home.typeQuery(query, 10);
+        home.submitEnter(5);
+        new ResultsPage(driver, 30).waitLoaded();
+        journey = TrafficCapture.collect(DriverManager.getRawDriver(), scriptId, query);
+        journey.save(saved);
+        System.out.printf("[load] captured %d calls for \"%s\" -> %s%n", journey.calls.size(), query, saved);
+        Assertions.assertFalse(journey.calls.isEmpty(), "The search journey made no API calls to capture.");
+    }
+
+    @When("the journey is replayed without browsers at the configured arrival rate")
+    public void the_journey_is_replayed() {
+        // A journey reused via -Dload.reuseJourney skipped the capture step's own check.
+        Assertions.assertFalse(journey.calls.isEmpty(), "The journey has no API calls to replay.");
+        String target = Config.get("load.target", origin(journey.calls.get(0).url));
+        requireLocal(target);
+        List<TrafficCapture.Journey> journeys = new ArrayList<>();
+        journeys.add(journey.retarget(target));
+        String corpus = Config.get("load.corpus", "");
+        if (!corpus.isEmpty()) {
+            try (QueryCorpus queries = QueryCorpus.open(Paths.get(corpus))) {
+                for (QueryCorpus.Entry e = queries.next(); e != null; e = queries.next()) {
+                    journeys.add(journey.forQuery(e.query).retarget(target));
+                }
+            }
+        }
+        LoadGenerator load = new LoadGenerator(LoadGenerator.Settings.fromConfig());
+        result = load.run(journeys);
+        load.writeReport(result, Paths.get(Config.get("load.report", "target/load/load-report.json")));
+    }
+
+    @Then("the load error rate should stay below {double} percent")
+    public void the_load_error_rate_should_stay_below(double percent) {
+        Assertions.assertTrue(result.requests > 0, "No requests were sent.");
+        Assertions.assertTrue(result.errorRate() * 100 < percent,
+                String.format("Error rate %.2f%% >= %.2f%%: %s", result.errorRate() * 100, percent, result.errorsByKind));
+        // Journeys shed at load.maxInFlight never sent a request, so they'd otherwise hide an overloaded backend.
+        Assertions.assertTrue(result.dropRate() * 100 < percent,
+                String.format("%.2f%% of journeys (%d) were dropped at load.maxInFlight >= %.2f%%",
+                        result.dropRate() * 100, result.journeysDropped, percent));
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static String origin(String url) {
+        URI u = URI.create(url);
+        return u.getScheme() + "://" + u.getRawAuthority();
+    }
+
+    /** Load is only ever aimed at the local stand-in unless explicitly allowed. */
+    private static void requireLocal(String target) {
+        if (Config.getBool("load.allowRemote", false)) return;
+        try {
+            if (InetAddress.getByName(URI.create(target).getHost()).isLoopbackAddress()) return;
+        } catch (UnknownHostException ignored) {
+            // fall through to the refusal below
+        }
+        throw new IllegalStateException("Refusing to generate load against " + target
+                + "; run with -Dbase.url=local or set -Dload.allowRemote=true for an environment you own.");
+    }
+}
@@ -2,28 +2,56 @@ package steps;
 
 import io.cucumber.java.en.*;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
 import pages.HomePage;
 import pages.ResultsPage;
+import pages.SearchSuggestions;
+import support.Config;
 import support.DriverManager;
+import support.FixtureServer;
+import support.SearchLatency;
+import support.TypeaheadProbe;
+import support.Waits;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class SearchSteps {
 
     HomePage home;
     ResultsPage results;
+    TypeaheadProbe.Timing typeahead;
 
     @Given("I open the Sportingbull homepage")
     public void open_homepage() {
         home = new HomePage(DriverManager.getDriver());
-        home.open("https://en.sportingbull.com/sportsbook");
+        home.open(FixtureServer.baseUrl());
     }
 
     @When("I search for {string}")
     public void search_for(String query) {
         home.focusSearch(15);
-        home.typeQuery(query, 10);
-        home.submitEnter(5);
-        results = new ResultsPage(DriverManager.getDriver(), 30);
-        results.waitLoaded();
+        searchInOpenOverlay(query);
+    }
+
+    /* ---- Search latency ---- */
+    @When("I search for {string} {int} times")
+    public void search_for_repeatedly(String query, int times) {
+        search_for(query);
+        for (int i = 1; i < times; i++) {
+            results.clickClearX();
+            searchInOpenOverlay(query);
+        }
+    }
+
+    @Then("the search latency for {string} should be within budget")
+    public void the_search_latency_should_be_within_budget(String query) {
+        List<String> violations = SearchLatency.budgetViolations().stream()
+                .filter(v -> v.startsWith(query + " "))
+                .collect(Collectors.toList());
+        Assertions.assertTrue(violations.isEmpty(), "Search latency over budget: " + violations);
     }
 
     @Then("I should see search results displayed")
@@ -67,4 +95,71 @@ public class SearchSteps {
         Assertions.assertFalse(results.hasResultsRowsVisible(),
                 "Expected all search results to disappear after clearing.");
     }
+
+    /* ---- Typeahead (-Dtypeahead.keyDelayMs, default 120) ---- */
+    @When("I type {string} one key at a time")
+    public void i_type_one_key_at_a_time(String text) {
+        WebDriver driver = DriverManager.getDriver();
+        home.focusSearch(15);
+        TypeaheadProbe.install(driver);
+        home.typeQueryPerKey(text, Config.getInt("typeahead.keyDelayMs", 120), 10);
+        try {
+            Waits.waitFor(driver, "TypeaheadProbe.caughtUp", 10, TypeaheadProbe::caughtUp);
+        } catch (TimeoutException e) {
+            // reported by the latency step: the last keystroke then has no render
+        }
+        typeahead = TypeaheadProbe.collect(driver, text);
+    }
+
+    @When("I pick the first suggestion")
+    public void i_pick_the_first_suggestion() {
+        WebDriver driver = DriverManager.getDriver();
+        new SearchSuggestions(driver, 10).clickFirst();
+        try {
+            Waits.waitFor(driver, "TypeaheadProbe.resultsAfterClick", 30, TypeaheadProbe::resultsAfterClick);
+        } catch (TimeoutException e) {
+            // reported by the navigation step
+        }
+        results = new ResultsPage(driver, 30);
+        results.waitLoaded();
+        typeahead = TypeaheadProbe.collect(driver, "first suggestion");
+    }
+
+    @Then("every keystroke should update the suggestions within {int} ms")
+    public void every_keystroke_should_update_the_suggestions_within(int maxMs) {
+        TypeaheadProbe.Keystroke last = typeahead.last();
+        Assertions.assertNotNull(last, "No keystrokes were observed in the search input.");
+        Assertions.assertNotNull(last.latencyMs, "The suggestions never updated for '" + last.value + "'.");
+        Assertions.assertTrue(typeahead.maxLatencyMs() <= maxMs,
+                "Slowest suggestion update took " + typeahead.maxLatencyMs() + " ms (limit " + maxMs + " ms).");
+    }
+
+    @Then("no stale or out-of-order suggestions should be rendered")
+    public void no_stale_or_out_of_order_suggestions_should_be_rendered() {
+        // Reported as skipped, not passed: without data-query (live site) there is nothing to check.
+        Assumptions.assumeTrue(typeahead.staleRenders != null,
+                "Suggestions carry no data-query; stale/out-of-order renders can't be checked here (run with -Dbase.url=local).");
+        Assertions.assertEquals(0, typeahead.staleRenders, "Suggestions rendered for a query already typed past.");
+        Assertions.assertEquals(0, typeahead.outOfOrderRenders, "Suggestions for an earlier prefix replaced a later one.");
+    }
+
+    @Then("the search results should open within {int} ms of picking the suggestion")
+    public void the_search_results_should_open_within(int maxMs) {
+        Assertions.assertNotNull(typeahead.clickToResultsMs, "Picking the suggestion did not update the results.");
+        Assertions.assertTrue(typeahead.clickToResultsMs <= maxMs,
+                "Results opened " + typeahead.clickToResultsMs + " ms after picking the suggestion (limit " + maxMs + " ms).");
+    }
+
+    /** Types + Enter into the already open overlay, timing it with the in-page latency probe. */
+    private void searchInOpenOverlay(String query) {
+        WebDriver driver = DriverManager.getDriver();
+        SearchLatency.install(driver);
+        home.typeQuery(query, 10);
+        home.submitEnter(5);
+        results = new ResultsPage(driver, 30);
+        results.waitLoaded();
+        // waitLoaded can return on rows a debounced search rendered before Enter; wait for Enter's own render.
+        SearchLatency.awaitAnswer(driver, 30);
+        SearchLatency.collect(driver, query);
+    }
 }
@@ -0,0 +1,126 @@
+package support;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * Browser execution profile. FULL is the headed, maximized Chrome we always used; LEAN is for CI
+ * throughput: headless, fixed desktop viewport (so the header search trigger stays in its desktop
+ * layout), no images/extensions/GPU, and third-party trackers blocked through CDP.
+ * <p>
+ * Chosen per scenario by a {@code @lean}/{@code @full} tag, else by -Dbrowser.profile (default full).
+ */
+public enum BrowserProfile {
+    FULL,
+    LEAN;
+
+    /** Analytics/ads hosts that never affect the search UI. Override with -Dbrowser.block=pattern,pattern */
+    private static final String DEFAULT_BLOCKED =
+            "*googletagmanager.com*,*google-analytics.com*,*doubleclick.net*,*facebook.net*,"
+          + "*hotjar.com*,*clarity.ms*,*newrelic.com*,*nr-data.net*";
+
+    public static BrowserProfile fromConfig() {
+        return valueOf(Config.get("browser.profile", "full").toUpperCase(Locale.ROOT));
+    }
+
+    /** Scenario tag wins over the system property. */
+    public static BrowserProfile forTags(Collection<String> tags) {
+        if (tags.contains("@lean")) return LEAN;
+        if (tags.contains("@full")) return FULL;
+        return fromConfig();
+    }
+
+    public ChromeOptions chromeOptions() {
+        return chromium(new ChromeOptions(), ChromeOptions.LOGGING_PREFS);
+    }
+
+    /** Options for a grid session of {@code browser}: chrome, MicrosoftEdge (or edge) or firefox. */
+    public MutableCapabilities optionsFor(String browser) {
+        switch (browser.toLowerCase(Locale.ROOT)) {
+            case "chrome":
+                return chromeOptions();
+            case "microsoftedge":
+            case "edge":
+                return chromium(new EdgeOptions(), EdgeOptions.LOGGING_PREFS);
+            case "firefox":
+                return firefoxOptions();
+            default:
+                throw new IllegalArgumentException("Unsupported grid browser: " + browser);
+        }
+    }
+
+    private <T extends ChromiumOptions<T>> T chromium(T options, String loggingPrefsKey) {
+        if (FailureCapture.enabled()) {
+            LoggingPreferences logs = new LoggingPreferences();
+            logs.enable(LogType.BROWSER, Level.ALL); // only read when a scenario fails
+            options.setCapability(loggingPrefsKey, logs);
+        }
+        if (this == LEAN) {
+            Dimension vp = viewport();
+            options.addArguments(
+                    "--headless=new",
+                    "--window-size=" + vp.getWidth() + "," + vp.getHeight(),
+                    "--disable-gpu",
+                    "--disable-extensions",
+                    "--disable-dev-shm-usage",
+                    "--blink-settings=imagesEnabled=false",
+                    "--mute-audio");
+            options.setExperimentalOption("prefs",
+                    Map.of("profile.managed_default_content_settings.images", 2));
+        }
+        return options;
+    }
+
+    /** Firefox has no CDP here: LEAN keeps headless, viewport and no images, but trackers are not blocked. */
+    private FirefoxOptions firefoxOptions() {
+        FirefoxOptions options = new FirefoxOptions();
+        if (this == LEAN) {
+            Dimension vp = viewport();
+            options.addArguments("-headless", "--width=" + vp.getWidth(), "--height=" + vp.getHeight());
+            options.addPreference("permissions.default.image", 2);
+        }
+        return options;
+    }
+
+    /** Post-start tweaks that need a live session. */
+    public void apply(WebDriver driver) {
+        if (this == FULL) {
+            driver.manage().window().maximize();
+            return;
+        }
+        List<String> blocked = blockedUrlPatterns();
+        if (!blocked.isEmpty() && driver instanceof HasCdp) {
+            HasCdp cdp = (HasCdp) driver;
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blocked));
+        }
+    }
+
+    private static Dimension viewport() {
+        String[] wh = Config.get("browser.viewport", "1366x900").toLowerCase(Locale.ROOT).split("x");
+        return new Dimension(Integer.parseInt(wh[0].trim()), Integer.parseInt(wh[1].trim()));
+    }
+
+    private static List<String> blockedUrlPatterns() {
+        return Arrays.stream(Config.get("browser.block", DEFAULT_BLOCKED).split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
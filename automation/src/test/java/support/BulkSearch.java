@@ -0,0 +1,201 @@
+package support;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import pages.HomePage;
+import pages.ResultsPage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs every query of a {@link QueryCorpus} through the overlay: type → Enter → read the count →
+ * clear with the ✖, reusing one open overlay per session instead of reloading the page.
+ * Sessions pull from the shared corpus, so fast workers simply take more queries. The extra sessions
+ * are leased through {@link DriverManager} on their own threads, like any scenario's.
+ * <p>
+ * Rows are appended (and flushed) to {@code target/bulk-search-results.csv} as they finish; the
+ * summary with queries/minute goes to {@code target/bulk-search-summary.json}.
+ */
+public final class BulkSearch {
+
+    /** Outcome of a run; {@link #queriesPerMinute} is the headline number. */
+    public static final class Result {
+        public final long queries;
+        public final long mismatches;
+        public final long errors;
+        public final long skippedLines;
+        public final long elapsedMs;
+        public final int sessions;
+
+        Result(long queries, long mismatches, long errors, long skippedLines, long elapsedMs, int sessions) {
+            this.queries = queries;
+            this.mismatches = mismatches;
+            this.errors = errors;
+            this.skippedLines = skippedLines;
+            this.elapsedMs = elapsedMs;
+            this.sessions = sessions;
+        }
+
+        public double queriesPerMinute() {
+            return elapsedMs == 0 ? 0 : queries * 60_000.0 / elapsedMs;
+        }
+    }
+
+    private final String baseUrl;
+    private final BrowserProfile profile;
+    private final int timeoutSec;
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private BufferedWriter out;
+
+    public BulkSearch(String baseUrl, BrowserProfile profile) {
+        this.baseUrl = baseUrl;
+        this.profile = profile;
+        this.timeoutSec = Config.getInt("bulk.timeoutSec", 15);
+    }
+
+    /**
+     * @param own      the scenario's session; used as worker 0
+     * @param sessions total sessions; the extra ones are leased here and handed back at the end
+     */
+    public Result run(QueryCorpus corpus, WebDriver own, int sessions, Path resultsCsv) {
+        sessions = Math.max(1, sessions);
+        AtomicInteger ran = new AtomicInteger(1); // the scenario's own session
+        long t0 = System.nanoTime();
+        try {
+            Files.createDirectories(resultsCsv.toAbsolutePath().getParent());
+            out = Files.newBufferedWriter(resultsCsv, StandardCharsets.UTF_8);
+            out.write("line,query,expected,actual,match,ms,worker");
+            out.newLine();
+
+            // The pool is sized for the scenario workers (1 without parallel); make room for ours.
+            DriverManager.ensureCapacity(Config.getInt("driver.pool.size", Config.workers()) - 1 + sessions);
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 1; i < sessions; i++) {
+                final int id = i;
+                Thread t = new Thread(() -> {
+                    WebDriver d;
+                    try {
+                        d = DriverManager.startDriver(profile);
+                    } catch (RuntimeException e) {
+                        System.out.printf("[bulk] worker %d: no session (%s), its share goes to the others%n", id, e.getMessage());
+                        return;
+                    }
+                    ran.incrementAndGet();
+                    try {
+                        work(corpus, d, id);
+                    } finally {
+                        DriverManager.quitDriver();
+                    }
+                }, "bulk-search-" + i);
+                t.start();
+                workers.add(t);
+            }
+            work(corpus, own, 0);
+            for (Thread t : workers) t.join();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + resultsCsv, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            corpus.close();
+            closeQuietly();
+        }
+
+        Result r = new Result(queries.get(), mismatches.get(), errors.get(), corpus.skipped(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0), ran.get());
+        System.out.printf("[bulk] %d queries in %d ms on %d session(s): %.1f queries/min, %d mismatches, %d errors, %d corpus line(s) skipped%n",
+                r.queries, r.elapsedMs, r.sessions, r.queriesPerMinute(), r.mismatches, r.errors, r.skippedLines);
+        writeSummary(r, resultsCsv.resolveSibling("bulk-search-summary.json"));
+        return r;
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private void work(QueryCorpus corpus, WebDriver driver, int worker) {
+        // The run outlasts any step budget; every worker, the scenario thread included, relies on
+        // bulk.timeoutSec per wait instead.
+        WaitEngine.clearStep();
+        HomePage home = new HomePage(driver);
+        ResultsPage results = new ResultsPage(driver, timeoutSec);
+        boolean overlayOpen = false;
+
+        QueryCorpus.Entry e;
+        while ((e = corpus.next()) != null) {
+            long q0 = System.nanoTime();
+            Integer actual = null;
+            try {
+                if (!overlayOpen) {
+                    home.open(baseUrl);
+                    home.focusSearch(timeoutSec);
+                    overlayOpen = true;
+                }
+                home.typeQuery(e.query, timeoutSec);
+                home.submitEnter(timeoutSec);
+                results.waitLoaded();
+                actual = results.getResultCountVisible();
+                results.clickClearX();
+            } catch (RuntimeException ex) {
+                errors.incrementAndGet();
+                overlayOpen = false; // reload the page before the next query
+                System.out.printf("[bulk] worker %d: '%s' failed: %s%n", worker, e.query, ex.getClass().getSimpleName());
+            }
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - q0);
+            boolean match = actual != null && (e.expected == null || e.expected.equals(actual));
+            if (actual != null && !match) mismatches.incrementAndGet();
+            queries.incrementAndGet();
+            writeRow(e, actual, match, ms, worker);
+        }
+    }
+
+    private synchronized void writeRow(QueryCorpus.Entry e, Integer actual, boolean match, long ms, int worker) {
+        try {
+            out.write(e.line + "," + csv(e.query) + "," + (e.expected == null ? "" : e.expected) + ","
+                    + (actual == null ? "" : actual) + "," + match + "," + ms + "," + worker);
+            out.newLine();
+            out.flush(); // incremental: a killed run still leaves every finished row on disk
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String csv(String s) {
+        return s.contains(",") || s.contains("\"") ? "\"" + s.replace("\"", "\"\"") + "\"" : s;
+    }
+
+    private void writeSummary(Result r, Path file) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("queries", r.queries);
+        m.put("sessions", r.sessions);
+        m.put("elapsedMs", r.elapsedMs);
+        m.put("queriesPerMinute", Math.round(r.queriesPerMinute() * 10) / 10.0);
+        m.put("mismatches", r.mismatches);
+        m.put("errors", r.errors);
+        m.put("skippedLines", r.skippedLines);
+        try {
+            Files.write(file, new Json().toJson(m).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.printf("[bulk] could not write %s: %s%n", file, e.getMessage());
+        }
+    }
+
+    private synchronized void closeQuietly() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,240 @@
+package support;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every WebDriver/WebElement command issued through the decorated driver and attributes it to
+ * the page-object method that issued it (deepest frame in pages/steps/Waits/Readiness) and locator.
+ * <p>
+ * Enabled with {@code -Dprofile.commands=true}. Per scenario it prints command counts with latency
+ * histograms and the top-N slowest locator/caller pairs ({@code -Dprofile.topN}, default 10); the
+ * suite-wide ranking goes to {@code target/command-profile.json}.
+ */
+public final class CommandProfiler implements WebDriverListener {
+
+    /** Histogram bucket upper bounds in ms; the last bucket is open-ended. */
+    private static final long[] BUCKETS_MS = {1, 5, 10, 25, 50, 100, 250, 500, 1000};
+    private static final Set<String> APP_PACKAGES = Set.of("pages.", "steps.");
+    private static final Set<String> APP_SUPPORT = Set.of("support.Waits", "support.Readiness");
+
+    private static final ThreadLocal<Deque<Long>> STARTS = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<Stats> SCENARIO = ThreadLocal.withInitial(Stats::new);
+    private static final Stats SUITE = new Stats();
+
+    private CommandProfiler() {}
+
+    public static boolean enabled() {
+        return Config.getBool("profile.commands", false);
+    }
+
+    /** Wraps the session so every command goes through the profiler. */
+    public static WebDriver decorate(WebDriver driver) {
+        return new EventFiringDecorator<>(new CommandProfiler()).decorate(driver);
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        STARTS.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(target, method, args);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        record(target, method, args);
+    }
+
+    /** Resets the calling thread's per-scenario profile and prints it on the {@link SideChannel}. */
+    public static void finishScenario(String scenario) {
+        Stats s = SCENARIO.get();
+        SCENARIO.remove();
+        STARTS.remove();
+        if (s.commands.isEmpty()) return;
+        SideChannel.submit("command profile of " + scenario, () -> print(scenario, s));
+    }
+
+    private static void print(String scenario, Stats s) {
+        StringBuilder sb = new StringBuilder("[commands] ").append(scenario).append('\n');
+        s.commands.forEach((cmd, c) -> sb.append(String.format("  %-20s n=%-5d total=%6d ms  hist%s%n",
+                cmd, c.count, ms(c.totalNanos), histogram(c))));
+        sb.append("  slowest locators:\n");
+        for (Map.Entry<String, Counter> e : top(s.locators, Config.getInt("profile.topN", 10))) {
+            sb.append(String.format("  %6d ms  n=%-4d max=%4d ms  %s%n",
+                    ms(e.getValue().totalNanos), e.getValue().count, ms(e.getValue().maxNanos), e.getKey()));
+        }
+        System.out.print(sb);
+    }
+
+    /** Suite-wide command totals and top-N locators as JSON. No-op when nothing was recorded. */
+    public static void writeReport() {
+        if (SUITE.commands.isEmpty()) return;
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> commands = new TreeMap<>();
+        SUITE.commands.forEach((cmd, c) -> commands.put(cmd, c.toJson()));
+        report.put("commands", commands);
+        List<Map<String, Object>> slowest = new ArrayList<>();
+        for (Map.Entry<String, Counter> e : top(SUITE.locators, Config.getInt("profile.topN", 10) * 5)) {
+            Map<String, Object> row = new LinkedHashMap<>(e.getValue().toJson());
+            row.put("site", e.getKey());
+            slowest.add(row);
+        }
+        report.put("slowestLocators", slowest);
+        Path file = Paths.get(Config.get("profile.report", "target/command-profile.json"));
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+            System.out.printf("[commands] profile written to %s%n", file.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.printf("[commands] could not write %s: %s%n", file, e.getMessage());
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static void record(Object target, Method method, Object[] args) {
+        Deque<Long> starts = STARTS.get();
+        if (starts.isEmpty()) return;
+        long nanos = System.nanoTime() - starts.pop();
+        String cmd = method.getName();
+        String site = caller() + " " + locator(target, cmd, args);
+        SCENARIO.get().add(cmd, site, nanos);
+        SUITE.add(cmd, site, nanos);
+    }
+
+    /** Deepest application frame, e.g. "ResultsPage.waitLoaded" or "Waits.firstPresent". */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> isApp(f.getClassName()))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + cleanMethod(f.getMethodName()))
+                .orElse("?"));
+    }
+
+    private static boolean isApp(String cls) {
+        for (String p : APP_PACKAGES) if (cls.startsWith(p)) return true;
+        for (String c : APP_SUPPORT) if (cls.equals(c) || cls.startsWith(c + "$")) return true;
+        return false;
+    }
+
+    private static String simpleName(String cls) {
+        String s = cls.substring(cls.lastIndexOf('.') + 1);
+        int inner = s.indexOf('$');
+        return inner > 0 ? s.substring(0, inner) : s;
+    }
+
+    /** lambda$waitLoaded$0 → waitLoaded */
+    private static String cleanMethod(String m) {
+        if (m.startsWith("lambda$")) {
+            int end = m.indexOf('$', 7);
+            return end > 0 ? m.substring(7, end) : m.substring(7);
+        }
+        return m;
+    }
+
+    private static String locator(Object target, String cmd, Object[] args) {
+        if (args != null && args.length > 0 && args[0] instanceof By) return args[0].toString();
+        if (args != null && args.length > 0 && cmd.startsWith("execute") && args[0] instanceof String) {
+            String script = ((String) args[0]).replaceAll("\\s+", " ").trim();
+            return "script[" + (script.length() > 40 ? script.substring(0, 40) + "…" : script) + "]";
+        }
+        if (target instanceof WebElement) {
+            // RemoteWebElement.toString ends with "-> css selector: x" (how it was found)
+            String s = target.toString();
+            int arrow = s.lastIndexOf("-> ");
+            return arrow >= 0 ? s.substring(arrow + 3).replaceAll("]+$", "") : "element";
+        }
+        if (target instanceof WebDriver) return "driver." + cmd;
+        return target.getClass().getSimpleName() + "." + cmd;
+    }
+
+    private static String histogram(Counter c) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < c.buckets.length; i++) {
+            if (c.buckets[i] == 0) continue;
+            if (sb.length() > 1) sb.append(' ');
+            sb.append(i < BUCKETS_MS.length ? "<" + BUCKETS_MS[i] : ">=" + BUCKETS_MS[BUCKETS_MS.length - 1])
+              .append("ms:").append(c.buckets[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static List<Map.Entry<String, Counter>> top(Map<String, Counter> m, int n) {
+        List<Map.Entry<String, Counter>> entries;
+        synchronized (m) {
+            entries = new ArrayList<>(m.entrySet());
+        }
+        entries.sort(Comparator.comparingLong((Map.Entry<String, Counter> e) -> e.getValue().totalNanos).reversed());
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+
+    private static long ms(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class Stats {
+        final Map<String, Counter> commands = new ConcurrentHashMap<>();
+        final Map<String, Counter> locators = new ConcurrentHashMap<>();
+
+        void add(String cmd, String site, long nanos) {
+            commands.computeIfAbsent(cmd, k -> new Counter()).add(nanos);
+            locators.computeIfAbsent(site, k -> new Counter()).add(nanos);
+        }
+    }
+
+    private static final class Counter {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        final long[] buckets = new long[BUCKETS_MS.length + 1];
+
+        synchronized void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int i = 0;
+            while (i < BUCKETS_MS.length && ms >= BUCKETS_MS[i]) i++;
+            buckets[i]++;
+        }
+
+        synchronized Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", count);
+            m.put("totalMs", ms(totalNanos));
+            m.put("maxMs", ms(maxNanos));
+            Map<String, Long> hist = new LinkedHashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                hist.put(i < BUCKETS_MS.length ? "<" + BUCKETS_MS[i] + "ms" : ">=" + BUCKETS_MS[BUCKETS_MS.length - 1] + "ms", buckets[i]);
+            }
+            m.put("histogram", hist);
+            return m;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package support;
+
+import java.net.URI;
+
+/** Typed access to the -D switches used by the suite (surefire forwards them as system properties). */
+public final class Config {
+
+    private Config() {}
+
+    public static String get(String key, String def) {
+        String v = System.getProperty(key);
+        return v == null || v.isBlank() ? def : v.trim();
+    }
+
+    public static int getInt(String key, int def) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    public static boolean getBool(String key, boolean def) {
+        return Boolean.parseBoolean(get(key, String.valueOf(def)));
+    }
+
+    /**
+     * What the suite runs against, for keeping learned or recorded data apart: "local" for the fixture,
+     * the host of an explicit -Dbase.url, "live" by default. Safe to use in a file name.
+     */
+    public static String environment() {
+        String base = get("base.url", FixtureServer.LIVE_URL);
+        String host = null;
+        if (base.contains("://")) {
+            try {
+                host = URI.create(base).getHost();
+            } catch (IllegalArgumentException ignored) {}
+        }
+        if (host != null && host.equals(URI.create(FixtureServer.LIVE_URL).getHost())) return "live";
+        return (host != null ? host : base).replaceAll("[^A-Za-z0-9.-]", "_");
+    }
+
+    /** Number of scenario worker threads (1 when parallel execution is off). */
+    public static int workers() {
+        if (!getBool("cucumber.execution.parallel.enabled", false)) return 1;
+        return Math.max(1, getInt("cucumber.execution.parallel.config.fixed.parallelism", 1));
+    }
+}
@@ -2,21 +2,24 @@ package support;
 
 import org.openqa.selenium.WebDriver;
 
+/**
+ * Legacy accessor kept for older step code. It used to hold a single static driver shared by
+ * every thread; it now delegates to the per-thread {@link DriverManager}.
+ *
+ * @deprecated use {@link DriverManager} directly.
+ */
+@Deprecated
 public class Driver {
-    private static WebDriver driver;
 
     public static WebDriver get() {
-        return driver;
+        return DriverManager.getDriver();
     }
 
     public static void set(WebDriver d) {
-        driver = d;
+        DriverManager.setDriver(d);
     }
 
     public static void quit() {
-        if (driver != null) {
-            driver.quit();
-            driver = null;
-        }
+        DriverManager.quitDriver();
     }
 }
@@ -0,0 +1,164 @@
+package support;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the chromedriver binary once per run (called from the @BeforeAll hook).
+ * <p>
+ * Order: pinned path (-Dwebdriver.chrome.driver or -Ddriver.binary) → local cache keyed by the
+ * installed Chrome major version → WebDriverManager (network), whose result is written back to the
+ * cache so later runs on the same box never touch the network. When the Chrome version can't be
+ * detected nothing is cached: WebDriverManager resolves the driver on every run instead.
+ */
+public final class DriverBinary {
+
+    private static final String SELENIUM_PROP = "webdriver.chrome.driver";
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.\\d+\\.\\d+");
+    private static final List<String> CHROME_COMMANDS = List.of(
+            "google-chrome", "google-chrome-stable", "chromium", "chromium-browser");
+
+    private static volatile String resolvedPath;
+
+    private DriverBinary() {}
+
+    /** Idempotent; returns the absolute driver path and exports it as webdriver.chrome.driver. */
+    public static String resolve() {
+        if (resolvedPath != null) return resolvedPath;
+        synchronized (DriverBinary.class) {
+            if (resolvedPath != null) return resolvedPath;
+            long t0 = System.nanoTime();
+            String source;
+            String path = pinnedPath();
+            if (path != null) {
+                source = "pinned";
+            } else {
+                String major = detectBrowserMajor();
+                if (major == null) {
+                    // No version to key on: a cached entry could outlive a Chrome upgrade, so let WDM decide each run.
+                    path = download(null);
+                    source = "WebDriverManager[chrome version unknown, not cached]";
+                } else {
+                    String key = "chrome-" + major;
+                    path = fromCache(key);
+                    if (path != null) {
+                        source = "cache[" + key + "]";
+                    } else {
+                        path = download(major);
+                        storeInCache(key, path);
+                        source = "WebDriverManager[" + key + "]";
+                    }
+                }
+            }
+            System.setProperty(SELENIUM_PROP, path);
+            resolvedPath = path;
+            System.out.printf("[DriverBinary] chromedriver from %s: %s (%d ms)%n",
+                    source, path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+            return path;
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static String pinnedPath() {
+        String pinned = Config.get(SELENIUM_PROP, Config.get("driver.binary", null));
+        if (pinned == null) return null;
+        if (!Files.isExecutable(Paths.get(pinned))) {
+            throw new IllegalStateException("Pinned chromedriver is not an executable file: " + pinned);
+        }
+        return Paths.get(pinned).toAbsolutePath().toString();
+    }
+
+    /** Asks the local Chrome for its version; no network. Null when Chrome can't be found. */
+    private static String detectBrowserMajor() {
+        String configured = Config.get("chrome.binary", null);
+        List<String> candidates = configured != null ? List.of(configured) : CHROME_COMMANDS;
+        for (String cmd : candidates) {
+            try {
+                Process p = new ProcessBuilder(cmd, "--version").redirectErrorStream(true).start();
+                String out;
+                try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                    out = r.readLine();
+                }
+                if (!p.waitFor(5, TimeUnit.SECONDS)) p.destroyForcibly();
+                Matcher m = VERSION.matcher(out == null ? "" : out);
+                if (m.find()) return m.group(1);
+            } catch (IOException e) {
+                // not installed under this name, try the next one
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String download(String major) {
+        WebDriverManager wdm = WebDriverManager.chromedriver();
+        if (major != null) wdm.browserVersion(major);
+        try {
+            wdm.setup();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not resolve chromedriver (offline runner?). "
+                    + "Pin one with -D" + SELENIUM_PROP + "=/path/to/chromedriver.", e);
+        }
+        return Paths.get(wdm.getDownloadedDriverPath()).toAbsolutePath().toString();
+    }
+
+    private static Path cacheFile() {
+        String dir = Config.get("driver.cache.dir",
+                Paths.get(System.getProperty("user.home"), ".cache", "sportsbook-search").toString());
+        return Paths.get(dir, "drivers.properties");
+    }
+
+    private static String fromCache(String key) {
+        Properties props = loadCache();
+        String path = props.getProperty(key);
+        return path != null && Files.isExecutable(Paths.get(path)) ? path : null;
+    }
+
+    private static Properties loadCache() {
+        Properties props = new Properties();
+        Path file = cacheFile();
+        if (Files.isRegularFile(file)) {
+            try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(r);
+            } catch (IOException e) {
+                System.out.printf("[DriverBinary] ignoring unreadable cache %s: %s%n", file, e.getMessage());
+            }
+        }
+        return props;
+    }
+
+    /** Write-then-rename so a parallel shard never reads a half-written file. */
+    private static void storeInCache(String key, String path) {
+        Path file = cacheFile();
+        try {
+            Files.createDirectories(file.getParent());
+            Properties props = loadCache();
+            props.setProperty(key, path);
+            Path tmp = Files.createTempFile(file.getParent(), "drivers", ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(w, "chromedriver binaries keyed by Chrome major version");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.printf("[DriverBinary] could not update cache %s: %s%n", file, e.getMessage());
+        }
+    }
+}
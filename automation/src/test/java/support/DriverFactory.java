@@ -0,0 +1,30 @@
+package support;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+
+/**
+ * Creates browser sessions: local Chrome, whose driver binary is resolved once per run by {@link DriverBinary},
+ * or remote ones from a Selenium Grid when {@code -Ddriver.mode=grid} (see {@link Grid}).
+ */
+public final class DriverFactory {
+
+    private DriverFactory() {}
+
+    public static WebDriver create(BrowserProfile profile) {
+        WebDriver driver;
+        if (Grid.enabled()) {
+            driver = Grid.create(profile);
+        } else {
+            DriverBinary.resolve();
+            driver = new ChromeDriver(profile.chromeOptions());
+        }
+        try {
+            profile.apply(driver);
+        } catch (RuntimeException e) {
+            driver.quit();
+            throw e;
+        }
+        return driver;
+    }
+}
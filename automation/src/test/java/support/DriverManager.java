@@ -2,11 +2,78 @@ package support;
 
 import org.openqa.selenium.WebDriver;
 
+import java.util.function.UnaryOperator;
+
+/**
+ * One isolated WebDriver per worker thread; scenarios never see another thread's session.
+ * Sessions come from a {@link DriverPool} unless -Ddriver.pool=false; {@link DriverFactory} makes them
+ * locally or, with -Ddriver.mode=grid, on a Selenium Grid.
+ */
 public class DriverManager {
     private static final ThreadLocal<WebDriver> TL_DRIVER = new ThreadLocal<>();
+    private static final ThreadLocal<WebDriver> TL_RAW = new ThreadLocal<>();
+    private static final ThreadLocal<BrowserProfile> TL_PROFILE = new ThreadLocal<>();
+
+    private static volatile DriverPool pool;
+
+    /** Binds a session of the given profile to the calling thread. Fails fast if the previous one leaked. */
+    public static WebDriver startDriver(BrowserProfile profile) {
+        if (TL_DRIVER.get() != null) {
+            throw new IllegalStateException("WebDriver already bound to " + Thread.currentThread().getName()
+                    + ". Previous scenario did not quit it?");
+        }
+        DriverPool p = pool();
+        WebDriver driver = p != null ? p.lease(profile) : DriverFactory.create(profile);
+        TL_DRIVER.set(driver);
+        TL_RAW.set(driver);
+        TL_PROFILE.set(profile);
+        if (Grid.enabled()) Grid.leased(driver);
+        return driver;
+    }
+
+    /**
+     * Replaces what {@link #getDriver()} hands to steps/page objects (e.g. with an instrumented
+     * decorator) while the pool keeps tracking the undecorated session.
+     */
+    public static WebDriver decorate(UnaryOperator<WebDriver> decorator) {
+        WebDriver decorated = decorator.apply(getRawDriver());
+        TL_DRIVER.set(decorated);
+        return decorated;
+    }
+
+    /** Makes room in the pool for {@code sessions} concurrent sessions; a no-op without the pool. */
+    public static void ensureCapacity(int sessions) {
+        DriverPool p = pool();
+        if (p != null) p.ensureSize(sessions);
+    }
+
+    /** Returns the calling thread's session to the pool (or quits it) and unbinds it. */
+    public static void quitDriver() {
+        WebDriver driver = TL_RAW.get() != null ? TL_RAW.get() : TL_DRIVER.get();
+        try {
+            if (driver != null) {
+                SessionMemory.record(driver, TL_PROFILE.get());
+                if (Grid.enabled()) Grid.returned(driver);
+                DriverPool p = pool;
+                if (p != null) p.release(driver);
+                else driver.quit();
+            }
+        } finally {
+            removeDriver();
+        }
+    }
+
+    /** Closes every pooled session. Called once at the end of the run. */
+    public static void shutdown() {
+        DriverPool p = pool;
+        if (p != null) p.shutdown();
+        SessionMemory.printSummary();
+        if (Grid.enabled()) Grid.report();
+    }
 
     public static void setDriver(WebDriver driver) {
         TL_DRIVER.set(driver);
+        TL_RAW.set(driver);
     }
 
     public static WebDriver getDriver() {
@@ -15,7 +82,29 @@ public class DriverManager {
         return d;
     }
 
+    /** The undecorated session, for CDP/capability access that decorators don't forward. */
+    public static WebDriver getRawDriver() {
+        WebDriver d = TL_RAW.get();
+        if (d == null) throw new IllegalStateException("WebDriver not initialized. Hooks did not run?");
+        return d;
+    }
+
     public static void removeDriver() {
         TL_DRIVER.remove();
+        TL_RAW.remove();
+        TL_PROFILE.remove();
+    }
+
+    private static DriverPool pool() {
+        if (!Config.getBool("driver.pool", true)) return null;
+        if (pool == null) {
+            synchronized (DriverManager.class) {
+                if (pool == null) {
+                    pool = DriverPool.fromConfig();
+                    Runtime.getRuntime().addShutdownHook(new Thread(DriverManager::shutdown, "driver-pool-shutdown"));
+                }
+            }
+        }
+        return pool;
     }
 }
@@ -0,0 +1,275 @@
+package support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of warmed browser sessions. Scenarios lease a session in @Before and hand it back
+ * in @After; the session is reset (cookies, storage, CDK overlay) on return and health-checked
+ * on the next lease, so a crashed or leaked browser is evicted instead of reused.
+ */
+public final class DriverPool {
+
+    private static final String RESET_JS =
+            "try { window.localStorage.clear(); } catch (e) {}"
+          + "try { window.sessionStorage.clear(); } catch (e) {}"
+          + "document.querySelectorAll('.cdk-overlay-container').forEach(function (c) { c.innerHTML = ''; });";
+
+    private int maxSize; // guarded by this
+    private final int maxLeasesPerSession;
+    private final long leaseTimeoutMs;
+
+    private final Deque<PooledSession> idle = new ArrayDeque<>();
+    private final Map<WebDriver, PooledSession> leased = new IdentityHashMap<>();
+    private int total;
+    private boolean closed;
+
+    private final AtomicLong coldStarts = new AtomicLong();
+    private final AtomicLong coldStartMsTotal = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DriverPool(int maxSize, int maxLeasesPerSession, long leaseTimeoutMs) {
+        this.maxSize = Math.max(1, maxSize);
+        this.maxLeasesPerSession = Math.max(1, maxLeasesPerSession);
+        this.leaseTimeoutMs = leaseTimeoutMs;
+    }
+
+    /** Pool sized to the worker count unless -Ddriver.pool.size says otherwise. */
+    public static DriverPool fromConfig() {
+        return new DriverPool(
+                Config.getInt("driver.pool.size", Config.workers()),
+                Config.getInt("driver.pool.maxLeases", 50),
+                TimeUnit.SECONDS.toMillis(Config.getInt("driver.pool.leaseTimeoutSec", 120)));
+    }
+
+    /**
+     * Returns a healthy session for the profile, reusing an idle one when possible. An idle session
+     * of another profile is recycled when the pool is full, or in grid mode when the grid has no free
+     * slot (our own idle sessions would otherwise hold the slots the new one queues for). Blocks while
+     * every session is leased.
+     */
+    public WebDriver lease(BrowserProfile profile) {
+        long deadline = System.currentTimeMillis() + leaseTimeoutMs;
+        while (true) {
+            PooledSession candidate;
+            PooledSession mismatched = null;
+            boolean gridFull = Grid.enabled() && onlyOtherProfilesIdle(profile) && !Grid.hasFreeSlot(); // read outside the lock: /status is HTTP
+            synchronized (this) {
+                while (idle.isEmpty() && total >= maxSize && !closed) {
+                    long left = deadline - System.currentTimeMillis();
+                    if (left <= 0) throw new IllegalStateException("No WebDriver available after " + leaseTimeoutMs + " ms (pool size " + maxSize + ").");
+                    try {
+                        wait(left);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for a WebDriver.", e);
+                    }
+                }
+                if (closed) throw new IllegalStateException("DriverPool is shut down.");
+                candidate = pollIdle(profile);
+                if (candidate == null) {
+                    if (total < maxSize && !(gridFull && !idle.isEmpty())) total++; // reserve a slot, create outside the lock
+                    else mismatched = idle.pollFirst();  // full (pool or grid): hand its slot over to the new session
+                }
+            }
+
+            if (candidate == null) {
+                if (mismatched != null) {
+                    evictions.incrementAndGet();
+                    System.out.printf("[DriverPool] recycling idle %s session for %s%n", mismatched.profile, profile);
+                    quietQuit(mismatched.driver);
+                }
+                return register(createSession(profile));
+            }
+            if (isHealthy(candidate.driver)) {
+                long saved = averageColdStartMs();
+                reuses.incrementAndGet();
+                System.out.printf("[DriverPool] %s reused %s session (lease #%d), saved ~%d ms startup%n",
+                        Thread.currentThread().getName(), profile, candidate.leases + 1, saved);
+                return register(candidate);
+            }
+            evict(candidate, "failed health check");
+        }
+    }
+
+    /** Grows the pool to at least {@code size} sessions for a step that needs that many at once (bulk search). */
+    public synchronized void ensureSize(int size) {
+        if (size <= maxSize) return;
+        System.out.printf("[DriverPool] growing from %d to %d session(s)%n", maxSize, size);
+        maxSize = size;
+        notifyAll();
+    }
+
+    /** Resets and returns the session; unhealthy or worn-out sessions are quit instead. */
+    public void release(WebDriver driver) {
+        if (driver == null) return;
+        PooledSession s;
+        synchronized (this) {
+            s = leased.remove(driver);
+        }
+        if (s == null) { // not ours, just close it
+            quietQuit(driver);
+            return;
+        }
+        if (s.leases >= maxLeasesPerSession) {
+            evict(s, "reached " + maxLeasesPerSession + " leases");
+            return;
+        }
+        if (!reset(driver)) {
+            evict(s, "reset failed");
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                quietQuit(driver);
+            } else {
+                idle.addLast(s);
+            }
+            notifyAll();
+        }
+    }
+
+    /** Quits every session, including ones a scenario never handed back. */
+    public void shutdown() {
+        Deque<PooledSession> toQuit = new ArrayDeque<>();
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            toQuit.addAll(idle);
+            toQuit.addAll(leased.values());
+            if (!leased.isEmpty()) {
+                System.out.printf("[DriverPool] %d session(s) still leased at shutdown (leaked)%n", leased.size());
+            }
+            idle.clear();
+            leased.clear();
+            total = 0;
+            notifyAll();
+        }
+        toQuit.forEach(s -> quietQuit(s.driver));
+        System.out.printf("[DriverPool] cold starts=%d (avg %d ms), reuses=%d, evictions=%d, est. startup saved=%d ms%n",
+                coldStarts.get(), averageColdStartMs(), reuses.get(), evictions.get(),
+                reuses.get() * averageColdStartMs());
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    /** Idle sessions exist but none can serve {@code profile}, so a lease would have to start a new one. */
+    private synchronized boolean onlyOtherProfilesIdle(BrowserProfile profile) {
+        return !idle.isEmpty() && idle.stream().noneMatch(s -> s.profile == profile);
+    }
+
+    private PooledSession pollIdle(BrowserProfile profile) {
+        for (Iterator<PooledSession> it = idle.iterator(); it.hasNext(); ) {
+            PooledSession s = it.next();
+            if (s.profile == profile) {
+                it.remove();
+                return s;
+            }
+        }
+        return null;
+    }
+
+    private PooledSession createSession(BrowserProfile profile) {
+        long t0 = System.nanoTime();
+        try {
+            WebDriver d = DriverFactory.create(profile);
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+            coldStarts.incrementAndGet();
+            coldStartMsTotal.addAndGet(ms);
+            System.out.printf("[DriverPool] %s cold start %d ms%n", Thread.currentThread().getName(), ms);
+            return new PooledSession(d, profile);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                total--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private WebDriver register(PooledSession s) {
+        s.leases++;
+        synchronized (this) {
+            leased.put(s.driver, s);
+        }
+        return s.driver;
+    }
+
+    private void evict(PooledSession s, String reason) {
+        evictions.incrementAndGet();
+        System.out.printf("[DriverPool] evicting session: %s%n", reason);
+        quietQuit(s.driver);
+        synchronized (this) {
+            total--;
+            notifyAll();
+        }
+    }
+
+    /** Cheap liveness probe: one window left open and the JS bridge still answers. */
+    private static boolean isHealthy(WebDriver driver) {
+        try {
+            return driver.getWindowHandles().size() == 1
+                    && Long.valueOf(1L).equals(((JavascriptExecutor) driver).executeScript("return 1;"));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean reset(WebDriver driver) {
+        try {
+            // Close any popups/tabs the scenario opened, keep the first window.
+            String main = driver.getWindowHandles().iterator().next();
+            for (String h : driver.getWindowHandles()) {
+                if (!h.equals(main)) {
+                    driver.switchTo().window(h).close();
+                }
+            }
+            driver.switchTo().window(main);
+
+            // Storage is per-origin, so clear it while still on the scenario's page.
+            ((JavascriptExecutor) driver).executeScript(RESET_JS);
+            if (driver instanceof HasCdp) {
+                ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private long averageColdStartMs() {
+        long n = coldStarts.get();
+        return n == 0 ? 0 : coldStartMsTotal.get() / n;
+    }
+
+    private static void quietQuit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception ignored) {}
+        if (Grid.enabled()) Grid.sessionClosed();
+    }
+
+    private static final class PooledSession {
+        final WebDriver driver;
+        final BrowserProfile profile;
+        int leases;
+
+        PooledSession(WebDriver driver, BrowserProfile profile) {
+            this.driver = driver;
+            this.profile = profile;
+        }
+    }
+}
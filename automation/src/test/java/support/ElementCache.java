@@ -0,0 +1,117 @@
+package support;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-page-object cache of located elements keyed by (scope, By). Hits cost no round-trip: the
+ * cached element is used optimistically and only re-located when the browser reports it stale
+ * (i.e. the CDK overlay was rebuilt) or when the page object sees a new overlay generation.
+ * <p>
+ * Page objects are used by one scenario thread at a time, so instances are not thread-safe; the
+ * suite-wide hit/miss/stale counters are.
+ */
+public final class ElementCache {
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder STALE = new LongAdder();
+
+    private final SearchContext root;
+    private final Map<Key, WebElement> elements = new HashMap<>();
+    private String generation;
+
+    public ElementCache(SearchContext root) {
+        this.root = root;
+    }
+
+    /** Cached element, located (and cached) on first use. Throws NoSuchElementException like findElement. */
+    public WebElement get(By by) {
+        return get(null, by);
+    }
+
+    /** Same, scoped under another element (e.g. the active overlay pane). */
+    public WebElement get(WebElement scope, By by) {
+        Key key = new Key(scope, by);
+        WebElement el = elements.get(key);
+        if (el != null) {
+            HITS.increment();
+            return el;
+        }
+        MISSES.increment();
+        el = (scope == null ? root : scope).findElement(by);
+        elements.put(key, el);
+        return el;
+    }
+
+    /** All matches; not cached, lists change shape too often to be worth tracking. */
+    public List<WebElement> all(By by) {
+        return root.findElements(by);
+    }
+
+    /**
+     * Runs the action on the cached element. If it went stale the entry is dropped, the element is
+     * located again and the action retried once.
+     */
+    public <T> T use(By by, Function<WebElement, T> action) {
+        try {
+            return action.apply(get(by));
+        } catch (StaleElementReferenceException e) {
+            STALE.increment();
+            invalidate(by);
+            return action.apply(get(by));
+        }
+    }
+
+    /** Drops everything when the owner sees a new overlay (pane id changed), cheaper than hitting stale refs. */
+    public void onGeneration(String newGeneration) {
+        if (!Objects.equals(generation, newGeneration)) {
+            generation = newGeneration;
+            elements.clear();
+        }
+    }
+
+    public void invalidate(By by) {
+        elements.keySet().removeIf(k -> k.by.equals(by));
+    }
+
+    public void invalidate() {
+        elements.clear();
+    }
+
+    public static String summary() {
+        long h = HITS.sum(), m = MISSES.sum();
+        return String.format("hits=%d misses=%d stale=%d hit-rate=%d%%", h, m, STALE.sum(), h + m == 0 ? 0 : 100 * h / (h + m));
+    }
+
+    private static final class Key {
+        final WebElement scope;
+        final By by;
+
+        Key(WebElement scope, By by) {
+            this.scope = scope;
+            this.by = by;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return scope == k.scope && by.equals(k.by);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(scope) * 31 + by.hashCode();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Failure evidence that costs one script call per step on passing runs. After every step the overlay's
+ * outerHTML and the search input value go into a per-worker ring buffer (last {@code -Dcapture.ring.size}
+ * entries, default 20, within {@code -Dcapture.ring.budgetKb}, default 512). Only when a scenario fails
+ * are the screenshot, page source, console log and network (resource timing) entries taken and written,
+ * with the ring, to target/failures/&lt;scenario&gt;/ on the {@link SideChannel}.
+ * <p>
+ * {@code -Dcapture.failures=false} turns it off.
+ */
+public final class FailureCapture {
+
+    private static final String SNAPSHOT_JS =
+            "var o = document.querySelector('.cdk-overlay-container');"
+          + "var i = document.getElementById('search-input');"
+          + "return {url: location.href, html: o ? o.outerHTML : null, value: i ? i.value : null};";
+
+    private static final String NETWORK_JS =
+            "return performance.getEntriesByType('resource').map(function (e) {"
+          + "  return {url: e.name, type: e.initiatorType, startMs: Math.round(e.startTime),"
+          + "          durationMs: Math.round(e.duration), bytes: e.transferSize || 0,"
+          + "          status: e.responseStatus === undefined ? null : e.responseStatus};"
+          + "});";
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private static final ThreadLocal<Ring> RING = ThreadLocal.withInitial(Ring::new);
+
+    private FailureCapture() {}
+
+    public static boolean enabled() {
+        return Config.getBool("capture.failures", true);
+    }
+
+    /** Clears the calling worker's ring and marks the scenario start (console entries before it are dropped). */
+    public static void start() {
+        Ring ring = RING.get();
+        ring.clear();
+        ring.startedMs = System.currentTimeMillis();
+    }
+
+    /** Cheap overlay snapshot into the ring; never fails the step. */
+    public static void record(WebDriver driver, String label) {
+        if (!enabled() || driver == null) return;
+        try {
+            Object r = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_JS);
+            if (!(r instanceof Map)) return;
+            Map<?, ?> m = (Map<?, ?>) r;
+            RING.get().add(new Snapshot(System.currentTimeMillis(), label,
+                    str(m.get("url")), str(m.get("html")), str(m.get("value"))));
+        } catch (WebDriverException ignored) {
+            // no page yet, or the session is gone: nothing to keep
+        }
+    }
+
+    /**
+     * Grabs the heavy evidence from the still-open session and hands the writing to the side channel.
+     * Returns the screenshot (null if unavailable) so the caller can attach it to the report.
+     */
+    public static byte[] onFailure(WebDriver driver, String scenario) {
+        Ring ring = RING.get();
+        List<Snapshot> snapshots = ring.drain();
+        if (!enabled() || driver == null) return null;
+        long startedMs = ring.startedMs;
+
+        byte[] png = null;
+        String dom = null;
+        Object network = null;
+        List<LogEntry> console = Collections.emptyList();
+        try {
+            png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (WebDriverException | ClassCastException e) {
+            System.out.printf("[capture] no screenshot: %s%n", e.getMessage());
+        }
+        try {
+            dom = driver.getPageSource();
+            network = ((JavascriptExecutor) driver).executeScript(NETWORK_JS);
+        } catch (WebDriverException e) {
+            System.out.printf("[capture] no DOM/network: %s%n", e.getMessage());
+        }
+        try {
+            console = driver.manage().logs().get(LogType.BROWSER).getAll();
+        } catch (WebDriverException | UnsupportedOperationException ignored) {
+            // driver without log support
+        }
+
+        Path dir = Paths.get(Config.get("capture.dir", "target/failures"),
+                slug(scenario) + "-" + STAMP.format(Instant.now()) + "-" + Thread.currentThread().getId());
+        byte[] shot = png;
+        String page = dom;
+        Object net = network;
+        List<LogEntry> logs = console;
+        SideChannel.submit("failure artifacts of " + scenario, () -> write(dir, shot, page, net, logs, snapshots, startedMs));
+        return png;
+    }
+
+    /** Drops the ring of a passing scenario. */
+    public static void discard() {
+        RING.get().clear();
+    }
+
+    /* ---------------- Writing ---------------- */
+
+    private static void write(Path dir, byte[] png, String dom, Object network, List<LogEntry> console,
+                              List<Snapshot> snapshots, long startedMs) {
+        try {
+            Files.createDirectories(dir);
+            if (png != null) Files.write(dir.resolve("screenshot.png"), png);
+            if (dom != null) Files.writeString(dir.resolve("dom.html"), dom, StandardCharsets.UTF_8);
+            Json json = new Json();
+            if (network != null) Files.writeString(dir.resolve("network.json"), json.toJson(network), StandardCharsets.UTF_8);
+
+            StringBuilder log = new StringBuilder();
+            for (LogEntry e : console) {
+                if (e.getTimestamp() < startedMs) continue; // left over from an earlier scenario on a pooled session
+                log.append(Instant.ofEpochMilli(e.getTimestamp())).append(' ')
+                        .append(e.getLevel()).append(' ').append(e.getMessage()).append('\n');
+            }
+            Files.writeString(dir.resolve("console.log"), log, StandardCharsets.UTF_8);
+
+            List<Map<String, Object>> ring = new ArrayList<>();
+            for (Snapshot s : snapshots) ring.add(s.toJson());
+            Files.writeString(dir.resolve("overlay-ring.json"), json.toJson(ring), StandardCharsets.UTF_8);
+            System.out.printf("[capture] failure artifacts in %s (%d overlay snapshots)%n", dir.toAbsolutePath(), snapshots.size());
+        } catch (IOException e) {
+            System.out.printf("[capture] could not write %s: %s%n", dir, e.getMessage());
+        }
+    }
+
+    private static String slug(String s) {
+        String slug = s.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+        return slug.length() > 60 ? slug.substring(0, 60) : slug;
+    }
+
+    private static String str(Object o) {
+        return o == null ? null : o.toString();
+    }
+
+    /* ---------------- Ring ---------------- */
+
+    private static final class Snapshot {
+        final long atMs;
+        final String label;
+        final String url;
+        final String overlayHtml;
+        final String inputValue;
+
+        Snapshot(long atMs, String label, String url, String overlayHtml, String inputValue) {
+            this.atMs = atMs;
+            this.label = label;
+            this.url = url;
+            this.overlayHtml = overlayHtml;
+            this.inputValue = inputValue;
+        }
+
+        /** Approximate heap cost (UTF-16 chars). */
+        long bytes() {
+            return 2L * (len(label) + len(url) + len(overlayHtml) + len(inputValue)) + 64;
+        }
+
+        Snapshot truncated(long maxBytes) {
+            int keep = (int) Math.max(0, maxBytes / 2 - len(label) - len(url) - len(inputValue) - 32);
+            if (overlayHtml == null || overlayHtml.length() <= keep) return this;
+            return new Snapshot(atMs, label, url, overlayHtml.substring(0, keep) + "<!-- truncated -->", inputValue);
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("at", Instant.ofEpochMilli(atMs).toString());
+            m.put("step", label);
+            m.put("url", url);
+            m.put("searchValue", inputValue);
+            m.put("overlayHtml", overlayHtml);
+            return m;
+        }
+
+        private static int len(String s) {
+            return s == null ? 0 : s.length();
+        }
+    }
+
+    private static final class Ring {
+        final Deque<Snapshot> entries = new ArrayDeque<>();
+        final int capacity = Math.max(1, Config.getInt("capture.ring.size", 20));
+        final long budgetBytes = Math.max(4, Config.getInt("capture.ring.budgetKb", 512)) * 1024L;
+        long usedBytes;
+        long startedMs = System.currentTimeMillis();
+
+        void add(Snapshot s) {
+            if (s.bytes() > budgetBytes) s = s.truncated(budgetBytes);
+            entries.addLast(s);
+            usedBytes += s.bytes();
+            while (entries.size() > capacity || usedBytes > budgetBytes) {
+                usedBytes -= entries.removeFirst().bytes();
+            }
+        }
+
+        List<Snapshot> drain() {
+            List<Snapshot> out = new ArrayList<>(entries);
+            clear();
+            return out;
+        }
+
+        void clear() {
+            entries.clear();
+            usedBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded stand-in for the sportsbook so the suite runs without the live site.
+ * Serves the recorded page from {@code fixtures/sportsbook.html} and the search API from
+ * {@code fixtures/search/<query>.json} (unknown queries return no results).
+ * <p>
+ * Selected with {@code -Dbase.url=local}; {@code -Dfixture.port} pins the port (default: random) and
+ * {@code -Dfixture.latencyMs} adds server think time to the API calls.
+ */
+public final class FixtureServer {
+
+    public static final String LIVE_URL = "https://en.sportingbull.com/sportsbook";
+
+    private static final String FIXTURES = "fixtures/";
+    private static final Json JSON = new Json();
+
+    private static volatile FixtureServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, List<Map<String, Object>>> recorded;
+    private final long latencyMs;
+
+    private FixtureServer(int port, long latencyMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.recorded = loadRecorded();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newFixedThreadPool(Config.getInt("fixture.threads", 16), r -> {
+            Thread t = new Thread(r, "fixture-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/search", this::search);
+        server.createContext("/api/suggest", this::suggest);
+        server.createContext("/", this::page);
+        server.start();
+    }
+
+    /** URL the Background step opens: the fixture when -Dbase.url=local, the live site by default. */
+    public static String baseUrl() {
+        String configured = Config.get("base.url", LIVE_URL);
+        if (!"local".equalsIgnoreCase(configured)) return configured;
+        return start().url() + "/sportsbook";
+    }
+
+    /** Starts the shared server once per JVM (all workers talk to the same instance). */
+    public static FixtureServer start() {
+        if (instance == null) {
+            synchronized (FixtureServer.class) {
+                if (instance == null) {
+                    try {
+                        instance = new FixtureServer(Config.getInt("fixture.port", 0), Config.getInt("fixture.latencyMs", 0));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not start fixture server", e);
+                    }
+                    System.out.printf("[FixtureServer] serving %s%n", instance.url());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static void stop() {
+        synchronized (FixtureServer.class) {
+            if (instance == null) return;
+            instance.server.stop(0);
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /* ---------------- Handlers ---------------- */
+
+    private void page(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        if (!path.equals("/") && !path.startsWith("/sportsbook")) {
+            send(ex, 404, "text/plain", "not found".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        send(ex, 200, "text/html; charset=utf-8", resource(FIXTURES + "sportsbook.html"));
+    }
+
+    private void search(HttpExchange ex) throws IOException {
+        String q = query(ex.getRequestURI());
+        List<Map<String, Object>> results = recorded.getOrDefault(key(q), List.of());
+        think();
+        sendJson(ex, Map.of("query", q, "results", results));
+    }
+
+    /** Names from every recorded response that contain the typed prefix (max 8), like the typeahead. */
+    private void suggest(HttpExchange ex) throws IOException {
+        String q = query(ex.getRequestURI());
+        String needle = key(q);
+        List<String> names = new ArrayList<>();
+        if (!needle.isEmpty()) {
+            for (List<Map<String, Object>> results : recorded.values()) {
+                for (Map<String, Object> r : results) {
+                    String name = String.valueOf(r.get("name"));
+                    if (name.toLowerCase(Locale.ROOT).contains(needle) && !names.contains(name) && names.size() < 8) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        think();
+        sendJson(ex, Map.of("query", q, "suggestions", names));
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private void think() {
+        if (latencyMs <= 0) return;
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String query(URI uri) {
+        String raw = uri.getRawQuery();
+        if (raw == null) return "";
+        for (String pair : raw.split("&")) {
+            if (pair.startsWith("q=")) return URLDecoder.decode(pair.substring(2), StandardCharsets.UTF_8);
+        }
+        return "";
+    }
+
+    private static String key(String q) {
+        return q.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, List<Map<String, Object>>> loadRecorded() {
+        Map<String, List<Map<String, Object>>> out = new LinkedHashMap<>();
+        String index = new String(resource(FIXTURES + "search/index.txt"), StandardCharsets.UTF_8);
+        for (String name : index.split("\\R")) {
+            name = name.trim();
+            if (name.isEmpty() || name.startsWith("#")) continue;
+            Map<String, Object> doc = JSON.toType(
+                    new String(resource(FIXTURES + "search/" + name), StandardCharsets.UTF_8), Json.MAP_TYPE);
+            out.put(key(String.valueOf(doc.get("query"))), (List<Map<String, Object>>) doc.get("results"));
+        }
+        return out;
+    }
+
+    private static byte[] resource(String path) {
+        try (InputStream in = FixtureServer.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) throw new IllegalStateException("Missing fixture resource: " + path);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sendJson(HttpExchange ex, Object body) throws IOException {
+        send(ex, 200, "application/json; charset=utf-8", JSON.toJson(body).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange ex, int status, String type, byte[] body) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", type);
+        ex.getResponseHeaders().set("Cache-Control", "no-store");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package support;
+
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Remote sessions from a Selenium Grid, selected with {@code -Ddriver.mode=grid} ({@code -Dgrid.url},
+ * default http://localhost:4444; grid-local.sh starts a standalone one). New sessions rotate over
+ * {@code -Dgrid.browsers} (default chrome). Chromium sessions are augmented so CDP features keep working.
+ * <p>
+ * Capacity-aware: before asking for a session, the client reads the grid's {@code /status} and waits for a free
+ * slot for that browser on a node that is under its max-sessions limit. It also subtracts the session requests
+ * it already has in flight, so parallel workers never over-subscribe the nodes or stack up in the grid's own
+ * queue ({@code -Dgrid.queueTimeoutSec}, default 300).
+ * Each session is traced to its node, and {@link #report} prints and writes target/grid-report.json with these
+ * figures per node:
+ * <ul>
+ *   <li>sessions and scenarios;</li>
+ *   <li>busy time, utilisation and scenarios per minute;</li>
+ *   <li>the time spent queued for a slot, as against session start time.</li>
+ * </ul>
+ */
+public final class Grid {
+
+    private static final Json JSON = new Json();
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    /** What one node did for this run. */
+    private static final class NodeStats {
+        final String node;
+        final Map<String, Integer> browsers = new TreeMap<>();
+        int slots;
+        int sessions;
+        int scenarios;
+        long queueWaitMs;
+        long maxQueueWaitMs;
+        long startMs;
+        long busyMs;
+
+        NodeStats(String node) {
+            this.node = node;
+        }
+    }
+
+    /** Free capacity per browser name (lower case) from one /status read. */
+    private static final class Capacity {
+        final Map<String, Integer> free = new HashMap<>();
+        final Map<String, Integer> total = new HashMap<>();
+        final Map<String, String> nodeOfSession = new HashMap<>();
+        final Map<String, Integer> slotsPerNode = new HashMap<>();
+        final long readAt = System.nanoTime();
+    }
+
+    private static final AtomicInteger NEXT_BROWSER = new AtomicInteger();
+    private static final Map<String, Integer> CREATING = new HashMap<>();  // browser -> requests in flight, guarded by Grid.class
+    private static final Map<String, NodeStats> NODES = new ConcurrentHashMap<>();
+    private static final Map<String, String> SESSION_NODE = new ConcurrentHashMap<>();
+    private static final Map<String, Long> LEASED_AT = new ConcurrentHashMap<>();
+    private static final long STARTED_NANOS = System.nanoTime();
+    private static Capacity capacity;                                       // guarded by Grid.class
+
+    private Grid() {}
+
+    public static boolean enabled() {
+        return "grid".equalsIgnoreCase(Config.get("driver.mode", "local"));
+    }
+
+    public static String url() {
+        return Config.get("grid.url", "http://localhost:4444").replaceAll("/+$", "");
+    }
+
+    /** Waits for capacity, then opens a remote session of the next browser in {@code -Dgrid.browsers}. */
+    public static WebDriver create(BrowserProfile profile) {
+        List<String> browsers = browsers();
+        String browser = browsers.get(Math.floorMod(NEXT_BROWSER.getAndIncrement(), browsers.size()));
+        long queued = System.nanoTime();
+        reserve(browser);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued);
+        RemoteWebDriver remote;
+        long started = System.nanoTime();
+        try {
+            remote = new RemoteWebDriver(new URL(url()), profile.optionsFor(browser));
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Bad -Dgrid.url: " + url(), e);
+        } finally {
+            release(browser);
+        }
+        long startMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        String sessionId = remote.getSessionId().toString();
+        String node = nodeOf(sessionId);
+        SESSION_NODE.put(sessionId, node);
+        NodeStats stats = NODES.computeIfAbsent(node, NodeStats::new);
+        synchronized (stats) {
+            stats.sessions++;
+            stats.browsers.merge(browser, 1, Integer::sum);
+            stats.queueWaitMs += waitedMs;
+            stats.maxQueueWaitMs = Math.max(stats.maxQueueWaitMs, waitedMs);
+            stats.startMs += startMs;
+        }
+        System.out.printf("[grid] %s session on %s after %d ms queued + %d ms start%n", browser, node, waitedMs, startMs);
+        return new Augmenter().augment(remote);
+    }
+
+    /** A scenario took the session (busy time starts). */
+    public static void leased(WebDriver driver) {
+        String id = sessionId(driver);
+        if (id != null) LEASED_AT.put(id, System.nanoTime());
+    }
+
+    /** The scenario handed the session back. */
+    public static void returned(WebDriver driver) {
+        String id = sessionId(driver);
+        Long since = id == null ? null : LEASED_AT.remove(id);
+        if (since == null) return;
+        NodeStats stats = NODES.get(SESSION_NODE.getOrDefault(id, "unknown"));
+        if (stats == null) return;
+        synchronized (stats) {
+            stats.scenarios++;
+            stats.busyMs += TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - since);
+        }
+    }
+
+    /* ---------------- Capacity ---------------- */
+
+    private static synchronized void reserve(String browser) {
+        String key = browser.toLowerCase(Locale.ROOT);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Config.getInt("grid.queueTimeoutSec", 300));
+        long pollMs = Config.getInt("grid.pollMs", 500);
+        while (true) {
+            Capacity c = capacity(pollMs);
+            if (c.total.getOrDefault(key, 0) == 0) {
+                throw new SessionNotCreatedException("Grid at " + url() + " has no " + browser + " slots (see " + url() + "/ui)");
+            }
+            if (c.free.getOrDefault(key, 0) - CREATING.getOrDefault(key, 0) > 0) {
+                CREATING.merge(key, 1, Integer::sum);
+                return;
+            }
+            long leftMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (leftMs <= 0) {
+                throw new SessionNotCreatedException("No free " + browser + " slot on " + url() + " after "
+                        + Config.getInt("grid.queueTimeoutSec", 300) + " s");
+            }
+            try {
+                Grid.class.wait(Math.min(pollMs, leftMs)); // woken early when one of our own requests finishes
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SessionNotCreatedException("Interrupted while queued for a grid slot");
+            }
+        }
+    }
+
+    /**
+     * True when a session of the next browser in rotation could start without queueing for a slot, so
+     * the pool knows whether to quit one of its idle sessions first. True when /status can't be read,
+     * leaving the error to {@link #create}.
+     */
+    public static synchronized boolean hasFreeSlot() {
+        List<String> browsers = browsers();
+        String key = browsers.get(Math.floorMod(NEXT_BROWSER.get(), browsers.size())).toLowerCase(Locale.ROOT);
+        try {
+            Capacity c = capacity(Config.getInt("grid.pollMs", 500));
+            return c.free.getOrDefault(key, 0) - CREATING.getOrDefault(key, 0) > 0;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    /** One of our sessions was quit: its slot is free again, so the cached /status is stale. */
+    public static synchronized void sessionClosed() {
+        capacity = null;
+        Grid.class.notifyAll();
+    }
+
+    private static synchronized void release(String browser) {
+        CREATING.merge(browser.toLowerCase(Locale.ROOT), -1, Integer::sum);
+        capacity = null; // the grid changed; read it again
+        Grid.class.notifyAll();
+    }
+
+    /** Cached /status, at most {@code maxAgeMs} old. */
+    private static Capacity capacity(long maxAgeMs) {
+        if (capacity == null || TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - capacity.readAt) >= maxAgeMs) {
+            capacity = readStatus();
+        }
+        return capacity;
+    }
+
+    private static Capacity readStatus() {
+        String body;
+        try {
+            HttpResponse<String> r = HTTP.send(HttpRequest.newBuilder(URI.create(url() + "/status"))
+                    .timeout(Duration.ofSeconds(10)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (r.statusCode() != 200) throw new IOException("HTTP " + r.statusCode());
+            body = r.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Selenium Grid not reachable at " + url() + "/status (start one with ./grid-local.sh)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionNotCreatedException("Interrupted while reading grid status");
+        }
+        Map<String, Object> doc = JSON.toType(body, Json.MAP_TYPE);
+        Capacity c = new Capacity();
+        Object value = doc.get("value");
+        Object nodes = value instanceof Map ? ((Map<?, ?>) value).get("nodes") : null;
+        if (!(nodes instanceof List)) return c;
+        for (Object n : (List<?>) nodes) {
+            Map<?, ?> node = (Map<?, ?>) n;
+            String uri = String.valueOf(node.get("uri"));
+            boolean up = "UP".equalsIgnoreCase(String.valueOf(node.get("availability")));
+            List<?> slots = node.get("slots") instanceof List ? (List<?>) node.get("slots") : List.of();
+            int busy = 0;
+            Map<String, Integer> idle = new HashMap<>();
+            for (Object s : slots) {
+                Map<?, ?> slot = (Map<?, ?>) s;
+                Object stereotype = slot.get("stereotype");
+                String browser = stereotype instanceof Map
+                        ? String.valueOf(((Map<?, ?>) stereotype).get("browserName")).toLowerCase(Locale.ROOT) : "";
+                c.total.merge(browser, 1, Integer::sum);
+                if (slot.get("session") instanceof Map) {
+                    busy++;
+                    c.nodeOfSession.put(String.valueOf(((Map<?, ?>) slot.get("session")).get("sessionId")), uri);
+                } else {
+                    idle.merge(browser, 1, Integer::sum);
+                }
+            }
+            int maxSessions = node.get("maxSessions") instanceof Number ? ((Number) node.get("maxSessions")).intValue() : slots.size();
+            c.slotsPerNode.put(uri, Math.min(slots.size(), maxSessions));
+            int headroom = maxSessions - busy;
+            if (!up || headroom <= 0) continue;
+            idle.forEach((browser, free) -> c.free.merge(browser, Math.min(free, headroom), Integer::sum));
+        }
+        return c;
+    }
+
+    /** Node that runs the session, from a fresh /status read. */
+    private static String nodeOf(String sessionId) {
+        try {
+            Capacity c;
+            synchronized (Grid.class) {
+                c = capacity = readStatus();
+            }
+            String node = c.nodeOfSession.getOrDefault(sessionId, "unknown");
+            NodeStats stats = NODES.computeIfAbsent(node, NodeStats::new);
+            synchronized (stats) {
+                stats.slots = c.slotsPerNode.getOrDefault(node, 0);
+            }
+            return node;
+        } catch (RuntimeException e) {
+            return "unknown";
+        }
+    }
+
+    /* ---------------- Report ---------------- */
+
+    /** Per-node summary to stdout and target/grid-report.json ({@code -Dgrid.report}); no-op if no session came from the grid. */
+    public static void report() {
+        if (NODES.isEmpty()) return;
+        double wallMin = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - STARTED_NANOS)) / 60_000.0;
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long totalWait = 0;
+        long totalStart = 0;
+        int totalSessions = 0;
+        for (NodeStats s : new TreeMap<>(NODES).values()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            synchronized (s) {
+                double utilisation = s.slots == 0 ? 0 : 100.0 * s.busyMs / (s.slots * wallMin * 60_000);
+                row.put("node", s.node);
+                row.put("browsers", new TreeMap<>(s.browsers));
+                row.put("slots", s.slots);
+                row.put("sessions", s.sessions);
+                row.put("scenarios", s.scenarios);
+                row.put("scenariosPerMinute", Math.round(s.scenarios / wallMin * 10) / 10.0);
+                row.put("busyMs", s.busyMs);
+                row.put("utilisationPct", Math.round(utilisation));
+                row.put("avgQueueWaitMs", s.sessions == 0 ? 0 : s.queueWaitMs / s.sessions);
+                row.put("maxQueueWaitMs", s.maxQueueWaitMs);
+                row.put("avgSessionStartMs", s.sessions == 0 ? 0 : s.startMs / s.sessions);
+                totalWait += s.queueWaitMs;
+                totalStart += s.startMs;
+                totalSessions += s.sessions;
+            }
+            rows.add(row);
+            System.out.printf("[grid] %s %s slots=%s sessions=%s scenarios=%s (%s/min) utilisation=%s%% queue wait avg=%s ms max=%s ms, session start avg=%s ms%n",
+                    row.get("node"), row.get("browsers"), row.get("slots"), row.get("sessions"), row.get("scenarios"),
+                    row.get("scenariosPerMinute"), row.get("utilisationPct"), row.get("avgQueueWaitMs"),
+                    row.get("maxQueueWaitMs"), row.get("avgSessionStartMs"));
+        }
+        String bottleneck = totalWait > totalStart
+                ? "grid capacity: sessions waited longer for a slot than they took to start; add slots or nodes"
+                : "not the grid: slots were free when asked for; look at session start and scenario time";
+        System.out.printf("[grid] %d sessions queued %d ms in total; bottleneck: %s%n", totalSessions, totalWait, bottleneck);
+
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("grid", url());
+        doc.put("browsers", browsers());
+        doc.put("nodes", rows);
+        doc.put("totalQueueWaitMs", totalWait);
+        doc.put("bottleneck", bottleneck);
+        Path file = Paths.get(Config.get("grid.report", "target/grid-report.json"));
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Files.writeString(file, JSON.toJson(doc), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.printf("[grid] could not write %s: %s%n", file, e.getMessage());
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static List<String> browsers() {
+        List<String> out = Arrays.stream(Config.get("grid.browsers", "chrome").split(","))
+                .map(String::trim).filter(s -> !s.isEmpty())
+                .map(b -> b.equalsIgnoreCase("edge") ? "MicrosoftEdge" : b)
+                .collect(Collectors.toList());
+        return out.isEmpty() ? List.of("chrome") : out;
+    }
+
+    private static String sessionId(WebDriver driver) {
+        return driver instanceof RemoteWebDriver && ((RemoteWebDriver) driver).getSessionId() != null
+                ? ((RemoteWebDriver) driver).getSessionId().toString() : null;
+    }
+}
@@ -0,0 +1,184 @@
+package support;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Impacted-only selection (auto-registered via META-INF/services; inactive unless -Dimpact.base is set,
+ * e.g. {@code mvn test -Dimpact.base=origin/main}). Diffs the working tree against the merge base of that
+ * ref, and keeps only the scenarios whose {@link ImpactMap} reaches a changed file. Changes to what every
+ * scenario runs through ({@link ImpactMap#globals()}: hooks, plugins, filters) and changes the map can't
+ * attribute (pom.xml, junit-platform.properties, ...) fall back to the full suite.
+ * <p>
+ * The decision and the time saved (recorded scenario durations) go to target/impact-selection.json and
+ * the run summary.
+ */
+public class ImpactFilter implements PostDiscoveryFilter {
+
+    /** Resources owned by one class: a change there counts as a change to that class. */
+    private static final Map<String, String> RESOURCE_OWNERS = Map.of(
+            "src/test/resources/fixtures/", ImpactMap.JAVA_ROOT + "/support/FixtureServer.java",
+            "src/test/resources/corpus/", ImpactMap.JAVA_ROOT + "/support/QueryCorpus.java");
+    /** Changes that cannot affect any scenario outcome. */
+    private static final List<String> IGNORED_SUFFIXES = List.of(".md", "run-shards.sh", "grid-local.sh", "scenario-durations.properties");
+
+    private static Selection selection;
+    private TestDescriptor reportedFor;
+
+    public static boolean enabled() {
+        return !Config.get("impact.base", "").isEmpty();
+    }
+
+    /** True when the scenario should run (always true when the mode is off or the change is unattributable). */
+    public static boolean selects(String scenarioKey) {
+        return !enabled() || selection().selects(scenarioKey);
+    }
+
+    /** One line for the run summary; empty when the mode is off. */
+    public static String summary() {
+        return enabled() ? selection().summary : "";
+    }
+
+    @Override
+    public synchronized FilterResult apply(TestDescriptor descriptor) {
+        if (!enabled() || !descriptor.isTest()) return FilterResult.included("impact selection off");
+        TestDescriptor root = descriptor;
+        while (root.getParent().isPresent()) root = root.getParent().get();
+        if (reportedFor != root) {
+            reportedFor = root;
+            List<String> all = new ArrayList<>();
+            collect(root, all);
+            selection().report(all);
+        }
+        return ShardFilter.key(descriptor)
+                .map(key -> selects(key)
+                        ? FilterResult.included("impacted by " + selection().base)
+                        : FilterResult.excluded("not impacted by changes since " + selection().base))
+                .orElseGet(() -> FilterResult.included("no feature source"));
+    }
+
+    private static void collect(TestDescriptor d, List<String> out) {
+        if (d.isTest()) ShardFilter.key(d).ifPresent(out::add);
+        for (TestDescriptor child : d.getChildren()) collect(child, out);
+    }
+
+    private static synchronized Selection selection() {
+        if (selection == null) selection = new Selection(Config.get("impact.base", "HEAD"));
+        return selection;
+    }
+
+    /* ---------------- Selection ---------------- */
+
+    private static final class Selection {
+        final String base;
+        final Set<String> changed = new TreeSet<>();
+        final Map<String, Set<String>> scenarios;
+        String fullRunReason;
+        String summary = "";
+
+        Selection(String base) {
+            this.base = base;
+            Map<String, Set<String>> map = Collections.emptyMap();
+            try {
+                String mergeBase = git("merge-base", "HEAD", base).stream().findFirst().orElse(base);
+                List<String> paths = new ArrayList<>(git("diff", "--name-only", "--relative", mergeBase));
+                paths.addAll(git("ls-files", "--others", "--exclude-standard"));
+                ImpactMap impact = ImpactMap.build(Paths.get("").toAbsolutePath());
+                for (String p : paths) classify(p.replace('\\', '/'), impact.globals());
+                map = impact.scenarios();
+            } catch (IOException | RuntimeException e) {
+                fullRunReason = "impact analysis failed: " + e.getMessage();
+            }
+            this.scenarios = map;
+        }
+
+        boolean selects(String key) {
+            if (fullRunReason != null) return true;
+            Set<String> deps = scenarios.get(key);
+            return deps == null || deps.stream().anyMatch(changed::contains);
+        }
+
+        private void classify(String path, Set<String> globals) {
+            if (IGNORED_SUFFIXES.stream().anyMatch(path::endsWith)) return;
+            String source = null;
+            if (path.startsWith(ImpactMap.JAVA_ROOT + "/") || path.startsWith(ImpactMap.FEATURE_ROOT + "/")) {
+                source = path;
+            } else {
+                for (Map.Entry<String, String> owner : RESOURCE_OWNERS.entrySet()) {
+                    if (path.startsWith(owner.getKey())) source = owner.getValue();
+                }
+            }
+            if (source != null) {
+                changed.add(source);
+                if (globals.contains(source) && fullRunReason == null) fullRunReason = path + " changed (runs around every scenario)";
+            } else if (fullRunReason == null) {
+                fullRunReason = path + " changed";
+            }
+        }
+
+        void report(List<String> all) {
+            Map<String, Long> history = ScenarioDurations.load(ScenarioDurations.historyFile());
+            long fallback = ScenarioDurations.median(history);
+            List<String> run = all.stream().filter(this::selects).collect(Collectors.toList());
+            List<String> skipped = all.stream().filter(k -> !selects(k)).collect(Collectors.toList());
+            long savedMs = skipped.stream().mapToLong(k -> history.getOrDefault(k, fallback)).sum();
+
+            summary = fullRunReason != null
+                    ? String.format("full suite (%d scenarios): %s", all.size(), fullRunReason)
+                    : String.format("%d of %d scenarios impacted by %d changed files since %s, %d skipped, ~%d s saved",
+                            run.size(), all.size(), changed.size(), base, skipped.size(), savedMs / 1000);
+            System.out.printf("[impact] %s%n", summary);
+            changed.forEach(f -> System.out.printf("[impact]   changed %s%n", f));
+
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("base", base);
+            out.put("changed", changed);
+            out.put("fullRunReason", fullRunReason);
+            out.put("selected", run);
+            out.put("skipped", skipped);
+            out.put("savedMs", savedMs);
+            try {
+                Path file = Paths.get("target", "impact-selection.json");
+                Files.createDirectories(file.getParent());
+                Files.write(file, new Json().toJson(out).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.out.printf("[impact] could not write selection report: %s%n", e.getMessage());
+            }
+        }
+
+        private static List<String> git(String... args) throws IOException {
+            List<String> cmd = new ArrayList<>(List.of("git"));
+            cmd.addAll(List.of(args));
+            Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line; (line = r.readLine()) != null; ) {
+                    if (!line.isBlank()) lines.add(line.trim());
+                }
+                if (p.waitFor() != 0) throw new IOException(String.join(" ", cmd) + ": " + String.join(" ", lines));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted running git", e);
+            }
+            return lines;
+        }
+    }
+}
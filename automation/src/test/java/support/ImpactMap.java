@@ -0,0 +1,411 @@
+package support;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Static map from each scenario to the source files it can exercise: its feature file, the step
+ * definition methods its steps match (plus the private helpers and fields they use), and every class
+ * those reference, transitively. Hooks (@Before/@After...), Cucumber plugins, registered JUnit Platform
+ * services and the suite runner run around every scenario; they and everything they reach form the
+ * separate {@link #globals()} set, so they don't make every scenario look dependent on every class.
+ * <p>
+ * Source-level analysis only: class references are resolved by simple name among the classes under
+ * src/test/java, which is enough for this suite's flat package layout.
+ */
+public final class ImpactMap {
+
+    public static final String JAVA_ROOT = "src/test/java";
+    public static final String FEATURE_ROOT = "src/test/resources/features";
+
+    private static final Pattern STEP_ANNOTATION =
+            Pattern.compile("@(?:Given|When|Then|And|But)\\(\\s*\"((?:[^\"\\\\]|\\\\.)*)\"\\s*\\)\\s*(?:@\\w+(?:\\([^)]*\\))?\\s*)*"
+                    + "(?:public\\s+|protected\\s+|private\\s+)?(?:static\\s+)?[\\w<>\\[\\]]+\\s+(\\w+)\\s*\\(");
+    private static final Pattern HOOK_ANNOTATION = Pattern.compile("@(?:Before|After|BeforeAll|AfterAll|BeforeStep|AfterStep)\\b");
+    private static final Pattern SUITE_ANNOTATION = Pattern.compile("@Suite\\b");
+    private static final Pattern METHOD_SIGNATURE = Pattern.compile("(\\w+)\\s*\\([^()]*\\)\\s*(?:throws\\s+[\\w.,\\s]+)?$");
+    private static final Pattern IMPORT_OR_PACKAGE = Pattern.compile("(?m)^\\s*(?:import|package)\\s+[^;]*;");
+    private static final Pattern TYPE_NAME = Pattern.compile("\\b[A-Z]\\w*\\b");
+    /** A declaration ending in ';' right after a brace or another ';': field name in group 1. */
+    private static final Pattern FIELD = Pattern.compile("(?<=[;{}])[^;{}()]*?\\b(\\w+)\\s*(?:=[^;{}]*)?;");
+    private static final Pattern CALL = Pattern.compile("\\b(\\w+)\\s*\\(");
+    private static final Set<String> NOT_METHODS = Set.of("if", "for", "while", "switch", "catch", "synchronized", "try", "return", "new");
+
+    private final Path moduleDir;
+    /** Simple class name -> path relative to the module dir. */
+    private final Map<String, String> classFiles = new HashMap<>();
+    /** Class path -> class paths it references anywhere in its source. */
+    private final Map<String, Set<String>> classRefs = new HashMap<>();
+    private final List<StepDef> stepDefs = new ArrayList<>();
+    private final Set<String> globalRoots = new TreeSet<>();
+    private final Map<String, Set<String>> scenarios = new LinkedHashMap<>();
+    private Set<String> globals = Set.of();
+
+    private ImpactMap(Path moduleDir) {
+        this.moduleDir = moduleDir;
+    }
+
+    /** Builds the map from the sources under {@code moduleDir}. */
+    public static ImpactMap build(Path moduleDir) {
+        ImpactMap map = new ImpactMap(moduleDir);
+        try {
+            map.scanJava();
+            map.scanRunLevelClasses();
+            map.globals = map.closure(map.globalRoots);
+            map.scanFeatures();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not build the scenario impact map", e);
+        }
+        return map;
+    }
+
+    /**
+     * Scenario key ({@link ScenarioDurations#key}) -> source files (relative to the module dir) it depends on,
+     * leaving out the {@link #globals()}.
+     */
+    public Map<String, Set<String>> scenarios() {
+        return scenarios;
+    }
+
+    /** Source files every scenario runs through (hooks, plugins, filters, runner); a change there affects all. */
+    public Set<String> globals() {
+        return globals;
+    }
+
+    /* ---------------- Java sources ---------------- */
+
+    private static final class StepDef {
+        final Pattern pattern;
+        final String classFile;
+        final String source;
+        final Map<String, String> methodBodies;
+        final String method;
+
+        StepDef(String expression, String classFile, String source, Map<String, String> methodBodies, String method) {
+            this.pattern = Pattern.compile(toRegex(expression));
+            this.classFile = classFile;
+            this.source = source;
+            this.methodBodies = methodBodies;
+            this.method = method;
+        }
+    }
+
+    private void scanJava() throws IOException {
+        Map<String, String> sources = new HashMap<>();
+        try (Stream<Path> files = Files.walk(moduleDir.resolve(JAVA_ROOT))) {
+            for (Path p : files.filter(f -> f.toString().endsWith(".java")).collect(Collectors.toList())) {
+                String rel = relative(p);
+                classFiles.put(p.getFileName().toString().replaceFirst("\\.java$", ""), rel);
+                sources.put(rel, Files.readString(p, StandardCharsets.UTF_8));
+            }
+        }
+        sources.forEach((rel, raw) -> {
+            String code = IMPORT_OR_PACKAGE.matcher(stripLiterals(raw)).replaceAll("");
+            classRefs.put(rel, typeRefs(code, rel));
+            if (HOOK_ANNOTATION.matcher(code).find() || SUITE_ANNOTATION.matcher(code).find()) globalRoots.add(rel);
+
+            Matcher m = STEP_ANNOTATION.matcher(raw);
+            if (!m.find()) return;
+            Map<String, String> bodies = methodBodies(code);
+            do {
+                stepDefs.add(new StepDef(m.group(1).replace("\\\"", "\""), rel, code, bodies, m.group(2)));
+            } while (m.find());
+        });
+    }
+
+    /** Cucumber plugins (junit-platform.properties) and JUnit Platform services (META-INF/services). */
+    private void scanRunLevelClasses() throws IOException {
+        Path resources = moduleDir.resolve("src/test/resources");
+        List<String> names = new ArrayList<>();
+        Path props = resources.resolve("junit-platform.properties");
+        if (Files.isRegularFile(props)) {
+            Properties p = new Properties();
+            try (Reader r = Files.newBufferedReader(props, StandardCharsets.UTF_8)) {
+                p.load(r);
+            }
+            for (String plugin : p.getProperty("cucumber.plugin", "").split(",")) {
+                names.add(plugin.trim().split(":", 2)[0]); // "json:path" style entries name no class of ours
+            }
+        }
+        Path services = resources.resolve("META-INF/services");
+        if (Files.isDirectory(services)) {
+            try (Stream<Path> files = Files.list(services)) {
+                for (Path f : files.collect(Collectors.toList())) {
+                    for (String line : Files.readAllLines(f, StandardCharsets.UTF_8)) names.add(line.replaceFirst("#.*", "").trim());
+                }
+            }
+        }
+        for (String name : names) {
+            String file = classFiles.get(name.substring(name.lastIndexOf('.') + 1));
+            if (file != null) globalRoots.add(file);
+        }
+    }
+
+    /**
+     * Classes a step method reaches: its own body, same-class helpers it calls, and the fields of its
+     * class that those use. The rest of the class (other steps' fields) doesn't count.
+     */
+    private Set<String> stepClasses(StepDef def) {
+        Set<String> methods = new LinkedHashSet<>();
+        Deque<String> todo = new ArrayDeque<>(List.of(def.method));
+        StringBuilder reached = new StringBuilder();
+        while (!todo.isEmpty()) {
+            String name = todo.pop();
+            String body = def.methodBodies.get(name);
+            if (body == null || !methods.add(name)) continue;
+            reached.append('\n').append(body);
+            Matcher call = CALL.matcher(body);
+            while (call.find()) {
+                if (def.methodBodies.containsKey(call.group(1))) todo.push(call.group(1));
+            }
+        }
+        String bodies = reached.toString();
+        for (Map.Entry<String, String> field : fields(def.source, def.methodBodies).entrySet()) {
+            if (Pattern.compile("\\b" + field.getKey() + "\\b").matcher(bodies).find()) reached.append('\n').append(field.getValue());
+        }
+        return typeRefs(reached.toString(), def.classFile);
+    }
+
+    private Set<String> typeRefs(String code, String self) {
+        Set<String> refs = new TreeSet<>();
+        Matcher m = TYPE_NAME.matcher(code);
+        while (m.find()) {
+            String file = classFiles.get(m.group());
+            if (file != null && !file.equals(self)) refs.add(file);
+        }
+        return refs;
+    }
+
+    private Set<String> closure(Set<String> roots) {
+        Set<String> seen = new TreeSet<>();
+        Deque<String> todo = new ArrayDeque<>(roots);
+        while (!todo.isEmpty()) {
+            String c = todo.pop();
+            if (seen.add(c)) todo.addAll(classRefs.getOrDefault(c, Set.of()));
+        }
+        return seen;
+    }
+
+    /** Method name -> body for methods declared directly in the top-level class (overloads are merged). */
+    private static Map<String, String> methodBodies(String code) {
+        Map<String, String> bodies = new HashMap<>();
+        int depth = 0;
+        int declStart = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '{') {
+                if (depth == 1) {
+                    Matcher sig = METHOD_SIGNATURE.matcher(code.substring(declStart, i).trim());
+                    if (sig.find() && !NOT_METHODS.contains(sig.group(1))) {
+                        int end = matchingBrace(code, i);
+                        bodies.merge(sig.group(1), code.substring(i, end + 1), String::concat);
+                        i = end;
+                        declStart = i + 1;
+                        continue;
+                    }
+                }
+                depth++;
+                declStart = i + 1;
+            } else if (c == '}') {
+                depth--;
+                declStart = i + 1;
+            } else if (c == ';') {
+                declStart = i + 1;
+            }
+        }
+        return bodies;
+    }
+
+    /** Field name -> declaration for the class's top-level fields (what's left once method bodies are cut out). */
+    private static Map<String, String> fields(String code, Map<String, String> bodies) {
+        String header = code;
+        for (String body : bodies.values()) header = header.replace(body, "{}");
+        Map<String, String> out = new HashMap<>();
+        Matcher m = FIELD.matcher(header);
+        while (m.find()) out.put(m.group(1), m.group());
+        return out;
+    }
+
+    private static int matchingBrace(String code, int open) {
+        int depth = 0;
+        for (int i = open; i < code.length(); i++) {
+            if (code.charAt(i) == '{') depth++;
+            else if (code.charAt(i) == '}' && --depth == 0) return i;
+        }
+        return code.length() - 1;
+    }
+
+    /** Blanks comments and string/char literals so braces and names inside them are not parsed. */
+    static String stripLiterals(String src) {
+        StringBuilder out = new StringBuilder(src.length());
+        int i = 0;
+        while (i < src.length()) {
+            if (src.startsWith("//", i)) {
+                while (i < src.length() && src.charAt(i) != '\n') i++;
+            } else if (src.startsWith("/*", i)) {
+                int end = src.indexOf("*/", i + 2);
+                i = end < 0 ? src.length() : end + 2;
+                out.append(' ');
+            } else if (src.startsWith("\"\"\"", i)) {
+                int end = src.indexOf("\"\"\"", i + 3);
+                i = end < 0 ? src.length() : end + 3;
+                out.append("\"\"");
+            } else if (src.charAt(i) == '"' || src.charAt(i) == '\'') {
+                char q = src.charAt(i++);
+                while (i < src.length() && src.charAt(i) != q) i += src.charAt(i) == '\\' ? 2 : 1;
+                i++;
+                out.append(q).append(q);
+            } else {
+                out.append(src.charAt(i++));
+            }
+        }
+        return out.toString();
+    }
+
+    /** Cucumber expression (or anchored regex) -> Java regex for matching step text. */
+    static String toRegex(String expression) {
+        if (expression.startsWith("^") || expression.endsWith("$")) return expression;
+        StringBuilder re = new StringBuilder("^");
+        Matcher m = Pattern.compile("\\{(\\w*)}|\\(([^)]*)\\)").matcher(expression);
+        int last = 0;
+        while (m.find()) {
+            re.append(Pattern.quote(expression.substring(last, m.start())));
+            if (m.group(2) != null) {
+                re.append("(?:").append(Pattern.quote(m.group(2))).append(")?");
+            } else {
+                switch (m.group(1)) {
+                    case "string": re.append("(?:\"[^\"]*\"|'[^']*')"); break;
+                    case "int": case "long": case "short": case "byte": case "biginteger": re.append("-?\\d+"); break;
+                    case "float": case "double": case "bigdecimal": re.append("-?\\d*[.,]?\\d+"); break;
+                    case "word": re.append("\\S+"); break;
+                    default: re.append(".*"); break;
+                }
+            }
+            last = m.end();
+        }
+        return re.append(Pattern.quote(expression.substring(last))).append('$').toString();
+    }
+
+    /* ---------------- Features ---------------- */
+
+    private void scanFeatures() throws IOException {
+        try (Stream<Path> files = Files.walk(moduleDir.resolve(FEATURE_ROOT))) {
+            for (Path p : files.filter(f -> f.toString().endsWith(".feature")).sorted().collect(Collectors.toList())) {
+                scanFeature(p);
+            }
+        }
+    }
+
+    /** Expands backgrounds and outline example rows; keys use the scenario (or example row) line. */
+    private void scanFeature(Path file) throws IOException {
+        String featureFile = relative(file);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<String> background = new ArrayList<>();
+        List<String> steps = null;
+        int scenarioLine = 0;
+        boolean outline = false;
+        List<String> header = null;
+        boolean inExamples = false;
+
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("@")) continue;
+            if (line.startsWith("Background:")) {
+                steps = background;
+                inExamples = false;
+            } else if (line.startsWith("Scenario Outline:") || line.startsWith("Scenario Template:")) {
+                closeScenario(featureFile, scenarioLine, outline, steps, background);
+                steps = new ArrayList<>();
+                scenarioLine = n + 1;
+                outline = true;
+                inExamples = false;
+            } else if (line.startsWith("Scenario:") || line.startsWith("Example:")) {
+                closeScenario(featureFile, scenarioLine, outline, steps, background);
+                steps = new ArrayList<>();
+                scenarioLine = n + 1;
+                outline = false;
+                inExamples = false;
+            } else if (line.startsWith("Examples:") || line.startsWith("Scenarios:")) {
+                inExamples = true;
+                header = null;
+            } else if (line.startsWith("|") && inExamples && steps != null) {
+                List<String> cells = cells(line);
+                if (header == null) {
+                    header = cells;
+                } else {
+                    List<String> expanded = new ArrayList<>();
+                    for (String s : steps) {
+                        for (int c = 0; c < header.size() && c < cells.size(); c++) {
+                            s = s.replace("<" + header.get(c) + ">", cells.get(c));
+                        }
+                        expanded.add(s);
+                    }
+                    addScenario(featureFile, n + 1, expanded, background);
+                }
+            } else if (steps != null && !inExamples) {
+                Matcher kw = Pattern.compile("^(?:Given|When|Then|And|But|\\*)\\s+(.*)$").matcher(line);
+                if (kw.matches()) steps.add(kw.group(1));
+            }
+            if (line.startsWith("Feature:")) background = new ArrayList<>();
+        }
+        closeScenario(featureFile, scenarioLine, outline, steps, background);
+    }
+
+    private void closeScenario(String featureFile, int line, boolean outline, List<String> steps, List<String> background) {
+        if (line > 0 && !outline && steps != null && steps != background) {
+            addScenario(featureFile, line, steps, background);
+        }
+    }
+
+    private void addScenario(String featureFile, int line, List<String> steps, List<String> background) {
+        String key = ScenarioDurations.key(featureFile, line);
+        if (scenarios.containsKey(key)) return;
+        Set<String> roots = new TreeSet<>();
+        Set<String> direct = new TreeSet<>(List.of(featureFile));
+        List<String> all = new ArrayList<>(background);
+        all.addAll(steps);
+        for (String text : all) {
+            StepDef def = stepDefs.stream().filter(d -> d.pattern.matcher(text).matches()).findFirst().orElse(null);
+            if (def == null) {
+                roots.addAll(classFiles.values()); // undefined step: assume everything
+            } else {
+                direct.add(def.classFile); // not expanded: only the matched methods count
+                roots.addAll(stepClasses(def));
+            }
+        }
+        Set<String> reached = closure(roots);
+        reached.removeAll(globals); // covered by the full run a change there triggers
+        reached.addAll(direct);
+        scenarios.put(key, reached);
+    }
+
+    private static List<String> cells(String row) {
+        String inner = row.substring(1, row.lastIndexOf('|') > 0 ? row.lastIndexOf('|') : row.length());
+        List<String> out = new ArrayList<>();
+        for (String c : inner.split("\\|", -1)) out.add(c.trim());
+        return out;
+    }
+
+    private String relative(Path p) {
+        return moduleDir.relativize(p).toString().replace('\\', '/');
+    }
+}
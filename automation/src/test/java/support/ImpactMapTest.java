@@ -0,0 +1,56 @@
+package support;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Impact map over this module's own sources (surefire runs from the module dir). */
+class ImpactMapTest {
+
+    private static final String RESULTS_PAGE = ImpactMap.JAVA_ROOT + "/pages/ResultsPage.java";
+    private static final String TYPING_SCENARIO = "features/Typeahead.feature:7";
+
+    private static ImpactMap map;
+
+    @BeforeAll
+    static void build() {
+        map = ImpactMap.build(Paths.get("").toAbsolutePath());
+    }
+
+    @Test
+    void resultsPageChangeSelectsOnlyScenariosThatReachIt() {
+        Map<String, Set<String>> scenarios = map.scenarios();
+        Set<String> selected = scenarios.entrySet().stream()
+                .filter(e -> e.getValue().contains(RESULTS_PAGE))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+
+        assertFalse(map.globals().contains(RESULTS_PAGE), "ResultsPage must not force a full run");
+        assertTrue(selected.contains("features/BasicSearch.feature:6"), "BasicSearch reads the results: " + selected);
+        assertFalse(selected.contains(TYPING_SCENARIO), "Per-keystroke typing never opens the results: " + selected);
+        assertTrue(selected.size() < scenarios.size(), "A ResultsPage-only change selected the whole suite");
+    }
+
+    @Test
+    void stepClassImportsAndUnusedFieldsDoNotCount() {
+        Set<String> basic = map.scenarios().get("features/BasicSearch.feature:6");
+        assertFalse(basic.contains(ImpactMap.JAVA_ROOT + "/support/TypeaheadProbe.java"), basic.toString());
+        assertFalse(basic.contains(ImpactMap.JAVA_ROOT + "/pages/SearchSuggestions.java"), basic.toString());
+    }
+
+    @Test
+    void hooksAndPluginsAreGlobalNotPerScenario() {
+        String hooks = ImpactMap.JAVA_ROOT + "/steps/Hooks.java";
+        assertTrue(map.globals().contains(hooks));
+        assertTrue(map.globals().contains(ImpactMap.JAVA_ROOT + "/support/WaitReportPlugin.java"));
+        assertTrue(map.globals().contains(ImpactMap.JAVA_ROOT + "/support/ImpactFilter.java"));
+        map.scenarios().forEach((key, deps) -> assertFalse(deps.contains(hooks), key + " lists the hooks"));
+    }
+}
@@ -0,0 +1,320 @@
+package support;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Browserless load: replays captured search journeys ({@link TrafficCapture.Journey}) over plain HTTP
+ * from one virtual thread per journey, started on an open-model arrival schedule so a slow backend
+ * builds a queue instead of slowing the generator down.
+ * <p>
+ * Journey latency is measured from the scheduled arrival, so queueing inside the generator shows up
+ * in the distribution; per-endpoint latency is the HTTP round trip.
+ */
+public final class LoadGenerator {
+
+    /** Set by HttpClient itself; it refuses them as user headers. */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "host", "expect", "upgrade");
+
+    /** Load shape, from -Dload.* (see README). */
+    public static final class Settings {
+        public final double ratePerSec;
+        public final int durationSec;
+        public final int maxInFlight;
+        public final boolean poisson;
+        public final double thinkScale;
+        public final int timeoutMs;
+
+        public Settings(double ratePerSec, int durationSec, int maxInFlight, boolean poisson, double thinkScale, int timeoutMs) {
+            this.ratePerSec = ratePerSec;
+            this.durationSec = durationSec;
+            this.maxInFlight = maxInFlight;
+            this.poisson = poisson;
+            this.thinkScale = thinkScale;
+            this.timeoutMs = timeoutMs;
+        }
+
+        public static Settings fromConfig() {
+            return new Settings(
+                    Double.parseDouble(Config.get("load.rate", "50")),
+                    Config.getInt("load.durationSec", 20),
+                    Config.getInt("load.maxInFlight", 5000),
+                    "poisson".equalsIgnoreCase(Config.get("load.arrival", "poisson")),
+                    Double.parseDouble(Config.get("load.thinkScale", "1.0")),
+                    Config.getInt("load.timeoutMs", 10_000));
+        }
+    }
+
+    /** Outcome of one run. */
+    public static final class Result {
+        public long journeysStarted;
+        public long journeysDropped;
+        public long requests;
+        public long errors;
+        public double elapsedSec;
+        public final Map<String, Long> errorsByKind = new TreeMap<>();
+        public final Map<String, Map<String, Object>> endpoints = new TreeMap<>();
+        public Map<String, Object> journeys;
+
+        public double requestsPerSec() {
+            return elapsedSec <= 0 ? 0 : requests / elapsedSec;
+        }
+
+        public double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        /** Share of scheduled journeys that never ran because {@code load.maxInFlight} was reached. */
+        public double dropRate() {
+            long scheduled = journeysStarted + journeysDropped;
+            return scheduled == 0 ? 0 : (double) journeysDropped / scheduled;
+        }
+    }
+
+    private final Settings settings;
+    private final HttpClient http;
+    private final Histogram journeyLatency = new Histogram();
+    private final Map<String, Histogram> endpointLatency = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> endpointErrors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errorsByKind = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public LoadGenerator(Settings settings) {
+        this.settings = settings;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(settings.timeoutMs))
+                .build();
+    }
+
+    /** Replays {@code journeys} round-robin at the configured arrival rate until the duration is up. */
+    public Result run(List<TrafficCapture.Journey> journeys) {
+        if (journeys.isEmpty() || journeys.stream().allMatch(j -> j.calls.isEmpty())) {
+            throw new IllegalStateException("No captured calls to replay");
+        }
+        System.out.printf("[load] %.1f journeys/s (%s arrivals) for %d s, max %d in flight, on %s%n",
+                settings.ratePerSec, settings.poisson ? "poisson" : "constant", settings.durationSec,
+                settings.maxInFlight, VirtualThreads.describe(Config.getInt("load.threads", 200)));
+
+        Semaphore inFlight = new Semaphore(settings.maxInFlight);
+        Random random = new Random(Config.getInt("load.seed", 42));
+        long started = 0;
+        long dropped = 0;
+        ExecutorService clients = VirtualThreads.newExecutor("load-client", Config.getInt("load.threads", 200));
+        long t0 = System.nanoTime();
+        long end = t0 + TimeUnit.SECONDS.toNanos(settings.durationSec);
+        double meanGapNanos = 1e9 / Math.max(0.001, settings.ratePerSec);
+        double next = t0;
+        try {
+            while (true) {
+                next += settings.poisson ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+                if (next >= end) break;
+                long wait = (long) next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                if (!inFlight.tryAcquire()) {
+                    dropped++;
+                    continue;
+                }
+                TrafficCapture.Journey journey = journeys.get((int) (started++ % journeys.size()));
+                long scheduled = (long) next;
+                clients.execute(() -> {
+                    try {
+                        replay(journey, scheduled);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            clients.shutdown();
+            try {
+                if (!clients.awaitTermination(settings.timeoutMs * 2L + 5_000, TimeUnit.MILLISECONDS)) {
+                    clients.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                clients.shutdownNow();
+            }
+        }
+
+        Result r = new Result();
+        r.journeysStarted = started;
+        r.journeysDropped = dropped;
+        r.requests = requests.get();
+        r.errors = errors.get();
+        r.elapsedSec = (System.nanoTime() - t0) / 1e9;
+        errorsByKind.forEach((k, v) -> r.errorsByKind.put(k, v.get()));
+        endpointLatency.forEach((path, h) -> {
+            Map<String, Object> row = h.toJson();
+            row.put("errors", endpointErrors.getOrDefault(path, new AtomicLong()).get());
+            r.endpoints.put(path, row);
+        });
+        r.journeys = journeyLatency.toJson();
+        print(r);
+        return r;
+    }
+
+    /** Writes the result as JSON (and returns the path). */
+    public Path writeReport(Result r, Path file) {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("ratePerSec", settings.ratePerSec);
+        doc.put("arrival", settings.poisson ? "poisson" : "constant");
+        doc.put("durationSec", settings.durationSec);
+        doc.put("journeysStarted", r.journeysStarted);
+        doc.put("journeysDropped", r.journeysDropped);
+        doc.put("dropRate", r.dropRate());
+        doc.put("requests", r.requests);
+        doc.put("requestsPerSec", Math.round(r.requestsPerSec() * 10) / 10.0);
+        doc.put("errors", r.errors);
+        doc.put("errorRate", r.errorRate());
+        doc.put("errorsByKind", r.errorsByKind);
+        doc.put("journeyLatencyMs", r.journeys);
+        doc.put("endpointLatencyMs", r.endpoints);
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(doc).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.printf("[load] could not write %s: %s%n", file, e.getMessage());
+        }
+        return file;
+    }
+
+    /* ---------------- Replay ---------------- */
+
+    private void replay(TrafficCapture.Journey journey, long scheduledNanos) {
+        long journeyStart = System.nanoTime();
+        for (TrafficCapture.Call call : journey.calls) {
+            long due = journeyStart + TimeUnit.MILLISECONDS.toNanos(Math.round(call.offsetMs * settings.thinkScale));
+            long wait = due - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            send(call);
+        }
+        journeyLatency.record(System.nanoTime() - scheduledNanos);
+    }
+
+    private void send(TrafficCapture.Call call) {
+        String endpoint = call.endpoint();
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(call.url))
+                .timeout(Duration.ofMillis(settings.timeoutMs))
+                .method(call.method, call.body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(call.body));
+        call.headers.forEach((k, v) -> {
+            if (!RESTRICTED_HEADERS.contains(k.toLowerCase(Locale.ROOT))) b.header(k, v);
+        });
+        requests.incrementAndGet();
+        long t = System.nanoTime();
+        try {
+            HttpResponse<Void> res = http.send(b.build(), HttpResponse.BodyHandlers.discarding());
+            if (res.statusCode() >= 400) error(endpoint, "HTTP " + res.statusCode());
+        } catch (IOException e) {
+            error(endpoint, e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error(endpoint, "interrupted");
+        } finally {
+            endpointLatency.computeIfAbsent(endpoint, k -> new Histogram()).record(System.nanoTime() - t);
+        }
+    }
+
+    private void error(String endpoint, String kind) {
+        errors.incrementAndGet();
+        endpointErrors.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+        errorsByKind.computeIfAbsent(kind, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static void print(Result r) {
+        System.out.printf("[load] %d journeys (%d = %.2f%% dropped at the in-flight cap), %d requests in %.1f s = %.1f req/s, errors %d (%.2f%%)%n",
+                r.journeysStarted, r.journeysDropped, r.dropRate() * 100, r.requests, r.elapsedSec, r.requestsPerSec(),
+                r.errors, r.errorRate() * 100);
+        System.out.printf("[load]   %-16s %s%n", "journey", r.journeys);
+        r.endpoints.forEach((path, row) -> System.out.printf("[load]   %-16s %s%n", path, row));
+        r.errorsByKind.forEach((k, v) -> System.out.printf("[load]   error %-20s %d%n", k, v));
+    }
+
+    /* ---------------- Histogram ---------------- */
+
+    /**
+     * Lock-free log-linear latency histogram: 32 sub-buckets per power of two of microseconds
+     * (about 3 % relative error), so thousands of concurrent clients never share a lock or a list.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB = 1 << SUB_BITS;
+        private final AtomicLongArray counts = new AtomicLongArray(64 * SUB);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            counts.incrementAndGet(index(micros));
+            total.incrementAndGet();
+            max.accumulateAndGet(micros, Math::max);
+        }
+
+        long percentileMicros(double p) {
+            long n = total.get();
+            if (n == 0) return 0;
+            long rank = (long) Math.ceil(p / 100.0 * n);
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) return Math.min(upperBound(i), max.get());
+            }
+            return max.get();
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", total.get());
+            m.put("p50", ms(percentileMicros(50)));
+            m.put("p90", ms(percentileMicros(90)));
+            m.put("p95", ms(percentileMicros(95)));
+            m.put("p99", ms(percentileMicros(99)));
+            m.put("max", ms(max.get()));
+            return m;
+        }
+
+        private static double ms(long micros) {
+            return Math.round(micros / 100.0) / 10.0;
+        }
+
+        /** Values below 64 us exactly; above, 32 linear sub-buckets per power of two. */
+        private static int index(long v) {
+            if (v < 2 * SUB) return (int) v;
+            int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+            return 2 * SUB + (shift - 1) * SUB + (int) (v >>> shift) - SUB;
+        }
+
+        private static long upperBound(int index) {
+            if (index < 2 * SUB) return index;
+            int shift = (index - 2 * SUB) / SUB + 1;
+            long mantissa = (index - 2 * SUB) % SUB + SUB;
+            return ((mantissa + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * How heavy the sportsbook page is, per page load and per search-overlay open. Turned on with
+ * {@code -Dtelemetry.enabled=true}; {@link pages.HomePage} then calls {@link #arm} before navigating,
+ * {@link #pageLoaded} once the page is usable and {@link #overlayOpened} whenever the search overlay shows.
+ * <p>
+ * In the page, PerformanceObservers (registered through CDP before the document loads, so nothing is
+ * missed) collect LCP, CLS and long tasks; Navigation/Resource Timing give TTFB, load times and resource
+ * counts and sizes. CDP {@code Performance.getMetrics} adds JS heap, DOM nodes and script/task time.
+ * Each scenario's samples are attached to its result; at suite end the per-phase medians go to
+ * {@code target/page-telemetry.json} and are compared with a saved baseline ({@link #regressions}).
+ * <p>
+ * Baselines are per environment ({@link Config#environment()}), in {@code telemetry-baselines/<env>.json}
+ * under the automation module, and are meant to be committed so every run gates against the same numbers.
+ */
+public final class PageTelemetry {
+
+    public static final String PAGE_LOAD = "page load";
+    public static final String OVERLAY_OPEN = "overlay open";
+
+    private static final Json JSON = new Json();
+
+    private static final String OBSERVER_JS =
+            "(function () {"
+          + "  if (window.__pageTel) return;"
+          + "  var P = window.__pageTel = { lcp: null, cls: 0, longTasks: [] };"
+          + "  try { performance.setResourceTimingBufferSize(1000); } catch (e) {}"
+          + "  function observe(type, fn) { try { new PerformanceObserver(function (l) { l.getEntries().forEach(fn); })"
+          + "    .observe({ type: type, buffered: true }); } catch (e) {} }"
+          + "  observe('largest-contentful-paint', function (e) { P.lcp = e.startTime; });"
+          + "  observe('layout-shift', function (e) { if (!e.hadRecentInput) P.cls += e.value; });"
+          + "  observe('longtask', function (e) { P.longTasks.push({ t: e.startTime, d: e.duration }); });"
+          + "})();";
+
+    /** arguments[0] = first resource entry to count, arguments[1] = ignore long tasks before this time. */
+    private static final String SNAPSHOT_JS =
+            "var P = window.__pageTel || { lcp: null, cls: 0, longTasks: [] };"
+          + "var res = performance.getEntriesByType('resource'), from = arguments[0], since = arguments[1];"
+          + "var out = { now: performance.now(), resourceIndex: res.length, resources: 0, transferBytes: 0, decodedBytes: 0,"
+          + "  longTasks: 0, longTaskMs: 0, blockingMs: 0, lcp: P.lcp, cls: P.cls,"
+          + "  heap: performance.memory ? performance.memory.usedJSHeapSize : null, nav: null };"
+          + "for (var i = from; i < res.length; i++) {"
+          + "  out.resources++; out.transferBytes += res[i].transferSize || 0; out.decodedBytes += res[i].decodedBodySize || 0; }"
+          + "P.longTasks.forEach(function (t) { if (t.t < since) return;"
+          + "  out.longTasks++; out.longTaskMs += t.d; out.blockingMs += Math.max(0, t.d - 50); });"
+          + "var n = performance.getEntriesByType('navigation')[0];"
+          + "if (n) out.nav = { ttfb: n.responseStart, dcl: n.domContentLoadedEventEnd, load: n.loadEventEnd,"
+          + "  transferBytes: n.transferSize || 0, decodedBytes: n.decodedBodySize || 0 };"
+          + "return out;";
+
+    /**
+     * Minimum change that counts as a regression, per metric, on top of {@code -Dtelemetry.tolerancePct}
+     * (keeps near-zero baselines such as "no long tasks" from failing on a single 51 ms task).
+     */
+    private static final Map<String, Double> SLACK = new LinkedHashMap<>();
+    static {
+        SLACK.put("ttfbMs", 200.0);
+        SLACK.put("domContentLoadedMs", 500.0);
+        SLACK.put("loadMs", 500.0);
+        SLACK.put("lcpMs", 500.0);
+        SLACK.put("cls", 0.05);
+        SLACK.put("resources", 3.0);
+        SLACK.put("transferKb", 25.0);
+        SLACK.put("decodedKb", 50.0);
+        SLACK.put("longTasks", 1.0);
+        SLACK.put("longTaskMs", 100.0);
+        SLACK.put("blockingMs", 50.0);
+        SLACK.put("heapMb", 5.0);
+        SLACK.put("domNodes", 250.0);
+        SLACK.put("scriptMs", 100.0);
+        SLACK.put("taskMs", 200.0);
+    }
+
+    /** Calling worker's page state: where the previous snapshot left off. */
+    private static final class Cursor {
+        int resourceIndex;
+        double since;
+        Map<String, Double> cdp = Map.of();
+        String scriptId;
+        final List<Map<String, Object>> samples = new ArrayList<>();
+    }
+
+    private static final ThreadLocal<Cursor> CURSOR = ThreadLocal.withInitial(Cursor::new);
+
+    /** phase -> metric -> samples over the whole run */
+    private static final Map<String, Map<String, List<Double>>> SUITE = new ConcurrentHashMap<>();
+
+    private PageTelemetry() {}
+
+    public static boolean enabled() {
+        return Config.getBool("telemetry.enabled", false);
+    }
+
+    /** Registers the observers for the next document and zeroes the CDP counters. Call before navigating. */
+    public static void arm(WebDriver driver) {
+        Cursor c = CURSOR.get();
+        c.resourceIndex = 0;
+        c.since = 0;
+        c.cdp = Map.of();
+        HasCdp cdp = cdp(driver);
+        if (cdp == null) return; // observers go in late, in pageLoaded; LCP/CLS are buffered, long tasks are not
+        try {
+            removeScript(cdp, c);
+            c.scriptId = String.valueOf(cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Map.of("source", OBSERVER_JS)).get("identifier"));
+            cdp.executeCdpCommand("Performance.enable", Map.of());
+            c.cdp = cdpMetrics(cdp);
+        } catch (WebDriverException e) {
+            System.out.printf("[telemetry] CDP unavailable, page metrics only: %s%n", e.getMessage());
+        }
+    }
+
+    /** Snapshot for the document that was just opened. */
+    public static void pageLoaded(WebDriver driver) {
+        Cursor c = CURSOR.get();
+        try {
+            ((JavascriptExecutor) driver).executeScript(OBSERVER_JS); // no-op when CDP already installed it
+        } catch (WebDriverException ignored) {
+            return;
+        }
+        snapshot(driver, PAGE_LOAD);
+        HasCdp cdp = cdp(driver);
+        if (cdp != null) removeScript(cdp, c); // the observers live on in this document; pooled sessions are reused
+    }
+
+    /** Snapshot of what opening the search overlay added to the current document. */
+    public static void overlayOpened(WebDriver driver) {
+        snapshot(driver, OVERLAY_OPEN);
+    }
+
+    /** The calling worker's samples as JSON for the scenario result; null when nothing was sampled. Resets the worker. */
+    public static byte[] finishScenario() {
+        Cursor c = CURSOR.get();
+        CURSOR.remove();
+        if (c.samples.isEmpty()) return null;
+        return JSON.toJson(c.samples).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /* ---------------- Sampling ---------------- */
+
+    private static void snapshot(WebDriver driver, String phase) {
+        Cursor c = CURSOR.get();
+        Map<?, ?> page;
+        String url;
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_JS, c.resourceIndex, c.since);
+            if (!(raw instanceof Map)) return;
+            page = (Map<?, ?>) raw;
+            url = driver.getCurrentUrl();
+        } catch (WebDriverException e) {
+            System.out.printf("[telemetry] %s not sampled: %s%n", phase, e.getMessage());
+            return;
+        }
+
+        Map<String, Double> m = new LinkedHashMap<>();
+        double transfer = num(page.get("transferBytes"));
+        double decoded = num(page.get("decodedBytes"));
+        if (PAGE_LOAD.equals(phase)) {
+            if (page.get("nav") instanceof Map) {
+                Map<?, ?> nav = (Map<?, ?>) page.get("nav");
+                m.put("ttfbMs", round(num(nav.get("ttfb"))));
+                m.put("domContentLoadedMs", round(num(nav.get("dcl"))));
+                m.put("loadMs", round(num(nav.get("load"))));
+                transfer += num(nav.get("transferBytes"));
+                decoded += num(nav.get("decodedBytes"));
+            }
+            if (page.get("lcp") instanceof Number) m.put("lcpMs", round(num(page.get("lcp"))));
+            m.put("cls", Math.round(num(page.get("cls")) * 1000) / 1000.0);
+        }
+        m.put("resources", num(page.get("resources")));
+        m.put("transferKb", round(transfer / 1024));
+        m.put("decodedKb", round(decoded / 1024));
+        m.put("longTasks", num(page.get("longTasks")));
+        m.put("longTaskMs", round(num(page.get("longTaskMs"))));
+        m.put("blockingMs", round(num(page.get("blockingMs"))));
+        if (page.get("heap") instanceof Number) m.put("heapMb", round(num(page.get("heap")) / (1024 * 1024) * 10) / 10);
+
+        HasCdp cdp = cdp(driver);
+        if (cdp != null) {
+            try {
+                Map<String, Double> now = cdpMetrics(cdp);
+                m.put("heapMb", round(now.getOrDefault("JSHeapUsedSize", 0.0) / (1024 * 1024) * 10) / 10);
+                m.put("domNodes", now.getOrDefault("Nodes", 0.0));
+                m.put("scriptMs", round(delta(now, c.cdp, "ScriptDuration") * 1000));
+                m.put("taskMs", round(delta(now, c.cdp, "TaskDuration") * 1000));
+                c.cdp = now;
+            } catch (WebDriverException ignored) {
+                // Performance domain not enabled on this session (e.g. armed without CDP)
+            }
+        }
+
+        c.resourceIndex = (int) num(page.get("resourceIndex"));
+        c.since = num(page.get("now"));
+
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("phase", phase);
+        sample.put("url", url);
+        sample.put("metrics", m);
+        c.samples.add(sample);
+        Map<String, List<Double>> perPhase = SUITE.computeIfAbsent(phase, p -> new ConcurrentHashMap<>());
+        m.forEach((k, v) -> perPhase.computeIfAbsent(k, x -> Collections.synchronizedList(new ArrayList<>())).add(v));
+        System.out.printf("[telemetry] %s %s%n", phase, m);
+    }
+
+    private static Map<String, Double> cdpMetrics(HasCdp cdp) {
+        Map<String, Object> r = cdp.executeCdpCommand("Performance.getMetrics", Map.of());
+        Map<String, Double> out = new LinkedHashMap<>();
+        if (r.get("metrics") instanceof List) {
+            for (Object o : (List<?>) r.get("metrics")) {
+                Map<?, ?> e = (Map<?, ?>) o;
+                out.put(String.valueOf(e.get("name")), num(e.get("value")));
+            }
+        }
+        return out;
+    }
+
+    /* ---------------- Report and baseline ---------------- */
+
+    /** phase -> metric -> {n, median, max} */
+    public static Map<String, Map<String, Map<String, Double>>> summary() {
+        Map<String, Map<String, Map<String, Double>>> out = new TreeMap<>();
+        SUITE.forEach((phase, metrics) -> {
+            Map<String, Map<String, Double>> perMetric = new LinkedHashMap<>();
+            for (String metric : SLACK.keySet()) {
+                List<Double> samples = metrics.get(metric);
+                if (samples == null) continue;
+                List<Double> sorted;
+                synchronized (samples) {
+                    sorted = new ArrayList<>(samples);
+                }
+                Collections.sort(sorted);
+                Map<String, Double> stats = new LinkedHashMap<>();
+                stats.put("n", (double) sorted.size());
+                stats.put("median", median(sorted));
+                stats.put("max", sorted.get(sorted.size() - 1));
+                perMetric.put(metric, stats);
+            }
+            out.put(phase, perMetric);
+        });
+        return out;
+    }
+
+    /**
+     * Writes target/page-telemetry.json ({@code -Dtelemetry.report}) with the medians and the baseline
+     * comparison. With {@code -Dtelemetry.updateBaseline=true} the medians become the new baseline.
+     */
+    public static Path writeReport() {
+        if (SUITE.isEmpty()) return null;
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("phases", summary());
+        doc.put("baseline", baselineFile().toString());
+        doc.put("regressions", regressions());
+        Path file = Paths.get(Config.get("telemetry.report", "target/page-telemetry.json"));
+        write(file, JSON.toJson(doc));
+        System.out.printf("[telemetry] report written to %s%n", file.toAbsolutePath());
+        if (Config.getBool("telemetry.updateBaseline", false)) {
+            Map<String, Map<String, Double>> medians = new TreeMap<>();
+            summary().forEach((phase, metrics) -> {
+                Map<String, Double> m = new LinkedHashMap<>();
+                metrics.forEach((metric, stats) -> m.put(metric, stats.get("median")));
+                medians.put(phase, m);
+            });
+            write(baselineFile(), JSON.toJson(medians));
+            System.out.printf("[telemetry] baseline updated: %s%n", baselineFile().toAbsolutePath());
+        }
+        return file;
+    }
+
+    /**
+     * Gated metrics ({@code -Dtelemetry.gate}, default payload weight and main-thread blocking) whose
+     * median grew past the baseline by more than {@code -Dtelemetry.tolerancePct} (default 20) and the
+     * metric's minimum slack, e.g. "page load transferKb=812 > 640 (baseline 520)". Empty without a baseline.
+     */
+    public static List<String> regressions() {
+        List<String> out = new ArrayList<>();
+        if (SUITE.isEmpty() || Config.getBool("telemetry.updateBaseline", false)) return out;
+        Map<String, Map<String, Double>> baseline = loadBaseline();
+        if (baseline.isEmpty()) return out;
+        List<String> gated = Arrays.stream(Config.get("telemetry.gate", "transferKb,decodedKb,resources,blockingMs,longTaskMs").split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toList());
+        double tolerance = Config.getInt("telemetry.tolerancePct", 20) / 100.0;
+        summary().forEach((phase, metrics) -> {
+            Map<String, Double> base = baseline.getOrDefault(phase, Map.of());
+            for (String metric : gated) {
+                Double was = base.get(metric);
+                Map<String, Double> stats = metrics.get(metric);
+                if (was == null || stats == null) continue;
+                double allowed = Math.max(was * (1 + tolerance), was + SLACK.getOrDefault(metric, 0.0));
+                double now = stats.get("median");
+                if (now > allowed) {
+                    out.add(String.format(Locale.ROOT, "%s %s=%s > %s (baseline %s)", phase, metric, fmt(now), fmt(allowed), fmt(was)));
+                }
+            }
+        });
+        return out;
+    }
+
+    private static Map<String, Map<String, Double>> loadBaseline() {
+        Path file = baselineFile();
+        if (!Files.isRegularFile(file)) {
+            System.out.printf("[telemetry] no baseline at %s; record one with -Dtelemetry.updateBaseline=true%n", file);
+            return Map.of();
+        }
+        try {
+            Map<String, Object> doc = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            Map<String, Map<String, Double>> out = new LinkedHashMap<>();
+            doc.forEach((phase, metrics) -> {
+                Map<String, Double> m = new LinkedHashMap<>();
+                if (metrics instanceof Map) ((Map<?, ?>) metrics).forEach((k, v) -> m.put(String.valueOf(k), num(v)));
+                out.put(phase, m);
+            });
+            return out;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read telemetry baseline " + file, e);
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    /** {@code -Dtelemetry.baseline}, else the current environment's file (relative to the module dir surefire runs in). */
+    private static Path baselineFile() {
+        return Paths.get(Config.get("telemetry.baseline", "telemetry-baselines/" + Config.environment() + ".json"));
+    }
+
+    /** The session's CDP handle; falls back to the undecorated driver when a decorator hides it. */
+    private static HasCdp cdp(WebDriver driver) {
+        if (driver instanceof HasCdp) return (HasCdp) driver;
+        try {
+            WebDriver raw = DriverManager.getRawDriver();
+            return raw instanceof HasCdp ? (HasCdp) raw : null;
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static void removeScript(HasCdp cdp, Cursor c) {
+        if (c.scriptId == null) return;
+        try {
+            cdp.executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", c.scriptId));
+        } catch (WebDriverException ignored) {
+            // session gone or already reset by the pool
+        }
+        c.scriptId = null;
+    }
+
+    private static void write(Path file, String json) {
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Files.writeString(file, json, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+        }
+    }
+
+    private static double delta(Map<String, Double> now, Map<String, Double> before, String key) {
+        return Math.max(0, now.getOrDefault(key, 0.0) - before.getOrDefault(key, 0.0));
+    }
+
+    static double median(List<Double> sorted) {
+        int n = sorted.size();
+        return n % 2 == 1 ? sorted.get(n / 2) : (sorted.get(n / 2 - 1) + sorted.get(n / 2)) / 2;
+    }
+
+    private static double round(double v) {
+        return Math.round(v);
+    }
+
+    private static String fmt(double v) {
+        return v == Math.rint(v) ? String.valueOf((long) v) : String.format(Locale.ROOT, "%.3f", v);
+    }
+
+    private static double num(Object o) {
+        return o instanceof Number ? ((Number) o).doubleValue() : 0;
+    }
+}
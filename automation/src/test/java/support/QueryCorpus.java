@@ -0,0 +1,161 @@
+package support;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams search queries from a CSV ({@code query,expected}) or JSONL
+ * ({@code {"query": "...", "expected": 9}}) file one line at a time, so corpora of any size can be
+ * shared by several bulk-search workers. {@code expected} is optional; blank means "don't check".
+ * A line that can't be parsed (bad JSON, non-numeric expected count) is logged with its line number
+ * and skipped rather than failing whichever worker happened to read it.
+ */
+public final class QueryCorpus implements Closeable {
+
+    /** One corpus line. {@code expected} is null when the line has no expectation. */
+    public static final class Entry {
+        public final String query;
+        public final Integer expected;
+        public final long line;
+
+        Entry(String query, Integer expected, long line) {
+            this.query = query;
+            this.expected = expected;
+            this.line = line;
+        }
+    }
+
+    private static final Json JSON = new Json();
+
+    private final BufferedReader reader;
+    private final boolean jsonl;
+    private long lineNo;
+    private long skipped;
+    private boolean sawFirstRow;
+    private boolean closed;
+
+    private QueryCorpus(BufferedReader reader, boolean jsonl) {
+        this.reader = reader;
+        this.jsonl = jsonl;
+    }
+
+    public static QueryCorpus open(Path file) {
+        try {
+            boolean jsonl = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".jsonl");
+            return new QueryCorpus(Files.newBufferedReader(file, StandardCharsets.UTF_8), jsonl);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open query corpus " + file, e);
+        }
+    }
+
+    /** Next entry or null at end of file. Safe to call from several workers. */
+    public synchronized Entry next() {
+        if (closed) return null;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                Entry e;
+                try {
+                    e = jsonl ? fromJson(line) : fromCsv(line);
+                } catch (RuntimeException ex) {
+                    skipped++;
+                    System.out.printf("[bulk] corpus line %d skipped: %s%n", lineNo, ex.getMessage());
+                    continue;
+                }
+                if (e != null) return e;
+            }
+            close();
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading query corpus at line " + lineNo, e);
+        }
+    }
+
+    /** Lines skipped so far because they could not be parsed. */
+    public synchronized long skipped() {
+        return skipped;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            reader.close();
+        } catch (IOException ignored) {}
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private Entry fromJson(String line) {
+        Map<String, Object> m = JSON.toType(line, Json.MAP_TYPE);
+        Object q = m.get("query");
+        if (q == null) return null;
+        Object exp = m.get("expected");
+        if (exp != null && !(exp instanceof Number)) {
+            throw new IllegalArgumentException("expected count '" + exp + "' is not a number");
+        }
+        return new Entry(q.toString(), exp instanceof Number ? ((Number) exp).intValue() : null, lineNo);
+    }
+
+    private Entry fromCsv(String line) {
+        List<String> cols = splitCsv(line);
+        String query = cols.get(0).strip();
+        boolean header = !sawFirstRow && query.equalsIgnoreCase("query");
+        sawFirstRow = true;
+        if (query.isEmpty() || header) return null;
+        Integer expected = null;
+        if (cols.size() > 1 && !cols.get(1).isBlank()) {
+            String raw = cols.get(1).strip();
+            try {
+                expected = Integer.valueOf(raw);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("expected count '" + raw + "' is not a number");
+            }
+        }
+        return new Entry(query, expected, lineNo);
+    }
+
+    /** Minimal RFC 4180 split: commas, double-quoted fields, "" as an escaped quote. */
+    static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        out.add(cur.toString());
+        return out;
+    }
+}
@@ -0,0 +1,216 @@
+package support;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event-driven readiness checks. Each call is a single async script that resolves inside the
+ * browser (MutationObserver + short rAF-rate fallback) the moment its condition holds, instead of
+ * sleeping or polling over the wire.
+ */
+public final class Readiness {
+
+    /**
+     * Shared visibility rule, mirroring isDisplayed() + non-zero size: rendered box with width and
+     * height and not hidden by CSS. Defines {@code visible(el)} for other in-page probes too.
+     */
+    public static final String VISIBLE_FN =
+            "function visible(el) {"
+          + "  if (!el || !el.isConnected) return false;"
+          + "  var r = el.getBoundingClientRect();"
+          + "  if (r.width <= 0 || r.height <= 0) return false;"
+          + "  var s = window.getComputedStyle(el);"
+          + "  return s.visibility !== 'hidden' && s.display !== 'none';"
+          + "}";
+
+    /**
+     * Resolves with [index, element] for the first spec (in priority order) that matches, or null on
+     * timeout or as soon as {@code settled()} says nothing will match any more.
+     */
+    private static final String FIRST_MATCH_JS =
+            "var specs = arguments[0], timeoutMs = arguments[1], needVisible = arguments[2];"
+          + "var done = arguments[arguments.length - 1];"
+          + VISIBLE_FN
+          + "function all(sp) {"
+          + "  if (sp[0] === 'xpath') {"
+          + "    var it = document.evaluate(sp[1], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), out = [];"
+          + "    for (var k = 0; k < it.snapshotLength; k++) out.push(it.snapshotItem(k));"
+          + "    return out;"
+          + "  }"
+          + "  return document.querySelectorAll(sp[1]);"
+          + "}"
+          + "function find() {"
+          + "  for (var i = 0; i < specs.length; i++) {"
+          + "    var els = all(specs[i]);"
+          + "    for (var j = 0; j < els.length; j++) if (!needVisible || visible(els[j])) return [i, els[j]];"
+          + "  }"
+          + "  return null;"
+          + "}"
+          + "var hit = find(); if (hit || settled()) { done(hit); return; }"
+          + "var finished = false, obs, tick, timer;"
+          + "function finish(h) { if (finished) return; finished = true; obs.disconnect(); clearInterval(tick); clearTimeout(timer); done(h); }"
+          + "obs = new MutationObserver(function () { var h = find(); if (h || settled()) finish(h); });"
+          + "obs.observe(document.documentElement, {childList: true, subtree: true, attributes: true,"
+          + "  attributeFilter: ['class', 'style', 'hidden', 'aria-hidden', 'disabled']});"
+          // layout/stylesheet changes don't always mutate the DOM; cheap in-page re-check
+          + "tick = setInterval(function () { var h = find(); if (h || settled()) finish(h); }, 100);"
+          + "timer = setTimeout(function () { finish(null); }, timeoutMs);";
+
+    private static final String NEVER_SETTLED_FN = "function settled() { return false; }";
+
+    /**
+     * OneTrust has made up its mind without a banner: consent cookie already set, SDK loaded and
+     * reporting the alert box closed, or the page finished loading without any OneTrust loader script
+     * at all. A loaded SDK whose alert box is still open is about to insert the banner, so that keeps
+     * waiting.
+     */
+    private static final String CONSENT_SETTLED_FN =
+            "function settled() {"
+          + "  if (document.cookie.indexOf('OptanonAlertBoxClosed=') >= 0) return true;"
+          + "  var ot = window.OneTrust;"
+          + "  if (ot) return typeof ot.IsAlertBoxClosed === 'function' && ot.IsAlertBoxClosed() === true;"
+          + "  return document.readyState === 'complete'"
+          + "      && !document.querySelector(\"script[src*='otSDKStub'], script[src*='onetrust'], script[data-domain-script]\");"
+          + "}";
+
+    private static final String HIDDEN_JS =
+            "var el = arguments[0], timeoutMs = arguments[1], done = arguments[arguments.length - 1];"
+          + VISIBLE_FN
+          + "if (!visible(el)) { done(true); return; }"
+          + "var t0 = Date.now();"
+          + "(function check() {"
+          + "  if (!visible(el)) { done(true); return; }"
+          + "  if (Date.now() - t0 > timeoutMs) { done(false); return; }"
+          + "  requestAnimationFrame(check);"
+          + "})();";
+
+    /** document complete + Angular zones stable (capped, some pages never go fully stable). */
+    private static final String DOCUMENT_READY_JS =
+            "var timeoutMs = arguments[0], stableCapMs = arguments[1], done = arguments[arguments.length - 1];"
+          + "var finished = false;"
+          + "function finish(v) { if (!finished) { finished = true; done(v); } }"
+          + "setTimeout(function () { finish(false); }, timeoutMs);"
+          + "function stable() {"
+          + "  var ts = window.getAllAngularTestabilities ? window.getAllAngularTestabilities() : [];"
+          + "  if (!ts.length) { finish(true); return; }"
+          + "  var n = ts.length;"
+          + "  setTimeout(function () { finish(true); }, stableCapMs);"
+          + "  ts.forEach(function (t) { t.whenStable(function () { if (--n === 0) finish(true); }); });"
+          + "}"
+          + "if (document.readyState === 'complete') stable();"
+          + "else window.addEventListener('load', stable, {once: true});";
+
+    private Readiness() {}
+
+    /** A hit from {@link #firstVisible}: which locator matched (index into the list) and the element. */
+    public static final class Match {
+        private final int index;
+        private final WebElement element;
+
+        Match(int index, WebElement element) {
+            this.index = index;
+            this.element = element;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public WebElement element() {
+            return element;
+        }
+    }
+
+    /** Waits for the page load event and Angular stability. True if both were observed in time. */
+    public static boolean documentReady(WebDriver driver, int timeoutSec) {
+        long timeoutMs = timeoutSec * 1000L;
+        timeoutMs = WaitEngine.capToStep(timeoutMs);
+        return Boolean.TRUE.equals(run(driver, "Readiness.documentReady", timeoutMs, DOCUMENT_READY_JS,
+                timeoutMs, Config.getInt("readiness.angularStableCapMs", 1500)));
+    }
+
+    /** First visible element among the locators (list order = priority), or null on timeout. */
+    public static Match firstVisible(WebDriver driver, long timeoutMs, List<By> locators) {
+        return first(driver, timeoutMs, locators, true);
+    }
+
+    /**
+     * The first visible consent button among the locators, or null as soon as the OneTrust script has
+     * settled without showing one (or on timeout). Lets callers wait for a late banner without paying
+     * the whole timeout on pages, or in sessions, where none is coming.
+     */
+    public static Match consentBanner(WebDriver driver, long timeoutMs, List<By> locators) {
+        return first(driver, timeoutMs, locators, true, CONSENT_SETTLED_FN, Waits.callerKey() + ">consentBanner");
+    }
+
+    /** First element present in the DOM among the locators, or null on timeout. */
+    public static Match firstPresent(WebDriver driver, long timeoutMs, List<By> locators) {
+        return first(driver, timeoutMs, locators, false);
+    }
+
+    /** Waits until the element is hidden or detached (e.g. a consent banner animating out). */
+    public static boolean untilHidden(WebDriver driver, WebElement el, long timeoutMs) {
+        timeoutMs = WaitEngine.capToStep(timeoutMs);
+        return Boolean.TRUE.equals(run(driver, "Readiness.untilHidden", timeoutMs, HIDDEN_JS, el, timeoutMs));
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static Match first(WebDriver driver, long timeoutMs, List<By> locators, boolean needVisible) {
+        return first(driver, timeoutMs, locators, needVisible, NEVER_SETTLED_FN,
+                Waits.callerKey() + (needVisible ? ">firstVisible" : ">firstPresent"));
+    }
+
+    private static Match first(WebDriver driver, long timeoutMs, List<By> locators, boolean needVisible,
+                               String settledFn, String key) {
+        List<List<String>> specs = new ArrayList<>();
+        for (By by : locators) specs.add(spec(by));
+        timeoutMs = WaitEngine.capToStep(timeoutMs);
+        Object res = run(driver, key, timeoutMs, settledFn + FIRST_MATCH_JS, specs, timeoutMs, needVisible);
+        if (!(res instanceof List) || ((List<?>) res).size() < 2) return null;
+        List<?> hit = (List<?>) res;
+        return new Match(((Number) hit.get(0)).intValue(), (WebElement) hit.get(1));
+    }
+
+    private static Object run(WebDriver driver, String key, long timeoutMs, String script, Object... args) {
+        long t0 = System.nanoTime();
+        Object res = null;
+        WebDriver.Timeouts timeouts = driver.manage().timeouts();
+        Duration previous = timeouts.getScriptTimeout();
+        try {
+            // Script timeout a bit above the in-page timer so the page, not WebDriver, decides.
+            timeouts.scriptTimeout(Duration.ofMillis(timeoutMs + 2000));
+            res = ((JavascriptExecutor) driver).executeAsyncScript(script, args);
+            return res;
+        } finally {
+            // Pooled sessions outlive the scenario; don't leave this probe's timeout behind.
+            try {
+                timeouts.scriptTimeout(previous);
+            } catch (RuntimeException ignored) {}
+            WaitEngine.recordExternal(key, System.nanoTime() - t0, res != null && !Boolean.FALSE.equals(res));
+        }
+    }
+
+    /** By → ["css"|"xpath", expression]; only the locator kinds the page objects use. */
+    static List<String> spec(By by) {
+        String s = by.toString();
+        int colon = s.indexOf(": ");
+        String kind = s.substring(0, colon);
+        String value = s.substring(colon + 2);
+        switch (kind) {
+            case "By.cssSelector": return List.of("css", value);
+            case "By.xpath":       return List.of("xpath", value);
+            case "By.id":          return List.of("css", "[id='" + value.replace("'", "\\'") + "']");
+            case "By.className":   return List.of("css", "." + value);
+            case "By.tagName":     return List.of("css", value);
+            case "By.name":        return List.of("css", "[name='" + value.replace("'", "\\'") + "']");
+            default: throw new IllegalArgumentException("Unsupported locator for in-page probe: " + s);
+        }
+    }
+}
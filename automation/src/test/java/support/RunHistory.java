@@ -0,0 +1,347 @@
+package support;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only history of step and wait durations across runs ({@code -Dhistory.file}, default
+ * run-history/history.bin), read back by {@link RunHistoryReport}.
+ * <p>
+ * Scenario threads only enqueue; every {@code -Dhistory.batchSize} entries (default 500) and at the end of
+ * the run a batch is written on the {@link SideChannel}. Each batch is one self-contained block, appended
+ * under a file lock so parallel shards can share the file:
+ * <pre>
+ *   int magic 'RHB1' | int payload length | int CRC32 of payload | payload
+ *   payload: run id, run start (epoch ms), commit, environment      (UTF strings / long)
+ *            varint string count, strings                           (scenario names, step texts, wait keys)
+ *            varint record count, records: byte kind, varint scenario, varint name, varlong micros, byte ok
+ * </pre>
+ * A torn block at the tail (killed run) fails its CRC and is skipped by the reader.
+ * {@code -Dhistory.enabled=false} turns recording off.
+ */
+public final class RunHistory {
+
+    public static final byte STEP = 1;
+    public static final byte WAIT = 2;
+
+    private static final int MAGIC = 0x52484231; // "RHB1"
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    /** One stored duration. */
+    public static final class Entry {
+        public final String runId;
+        public final long runStartedMs;
+        public final String commit;
+        public final String env;
+        public final byte kind;
+        public final String scenario;
+        public final String name;
+        public final long micros;
+        public final boolean ok;
+
+        Entry(String runId, long runStartedMs, String commit, String env, byte kind, String scenario, String name, long micros, boolean ok) {
+            this.runId = runId;
+            this.runStartedMs = runStartedMs;
+            this.commit = commit;
+            this.env = env;
+            this.kind = kind;
+            this.scenario = scenario;
+            this.name = name;
+            this.micros = micros;
+            this.ok = ok;
+        }
+    }
+
+    private static final class Pending {
+        final byte kind;
+        final String scenario;
+        final String name;
+        final long micros;
+        final boolean ok;
+
+        Pending(byte kind, String scenario, String name, long micros, boolean ok) {
+            this.kind = kind;
+            this.scenario = scenario;
+            this.name = name;
+            this.micros = micros;
+            this.ok = ok;
+        }
+    }
+
+    private static final ThreadLocal<String> SCENARIO = new ThreadLocal<>();
+    private static final Queue<Pending> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger QUEUED = new AtomicInteger();
+    private static final AtomicBoolean FLUSHING = new AtomicBoolean();
+    private static final long STARTED_MS = System.currentTimeMillis();
+    private static volatile String runId;
+    private static volatile String commit;
+    private static volatile long written;
+
+    private RunHistory() {}
+
+    public static boolean enabled() {
+        return Config.getBool("history.enabled", true);
+    }
+
+    public static Path file() {
+        return Paths.get(Config.get("history.file", "run-history/history.bin"));
+    }
+
+    /* ---------------- Recording (scenario threads) ---------------- */
+
+    /** Sets the scenario that the calling worker's later steps and waits belong to. */
+    public static void startScenario(String scenario) {
+        SCENARIO.set(scenario);
+    }
+
+    public static void finishScenario() {
+        SCENARIO.remove();
+    }
+
+    public static void step(String text, long nanos, boolean passed) {
+        add(STEP, text, nanos, passed);
+    }
+
+    /** A finished wait; {@code satisfied} is false for timeouts. Waits outside a scenario are not kept. */
+    public static void waited(String key, long nanos, boolean satisfied) {
+        if (SCENARIO.get() != null) add(WAIT, key, nanos, satisfied);
+    }
+
+    private static void add(byte kind, String name, long nanos, boolean ok) {
+        if (!enabled()) return;
+        String scenario = SCENARIO.get();
+        QUEUE.add(new Pending(kind, scenario == null ? "" : scenario, name, TimeUnit.NANOSECONDS.toMicros(nanos), ok));
+        if (QUEUED.incrementAndGet() >= Config.getInt("history.batchSize", 500) && FLUSHING.compareAndSet(false, true)) {
+            SideChannel.submit("run history batch", () -> {
+                try {
+                    drain();
+                } finally {
+                    FLUSHING.set(false);
+                }
+            });
+        }
+    }
+
+    /** Writes whatever is still queued (end of run) on the side channel. */
+    public static void close() {
+        if (QUEUED.get() == 0) return;
+        SideChannel.submit("run history", () -> {
+            drain();
+            System.out.printf("[history] %d durations appended to %s (run %s, commit %s, env %s)%n",
+                    written, file().toAbsolutePath(), runId(), commit(), env());
+        });
+    }
+
+    /* ---------------- Writing (side channel) ---------------- */
+
+    private static synchronized void drain() {
+        List<Pending> batch = new ArrayList<>();
+        for (Pending p; (p = QUEUE.poll()) != null; ) {
+            batch.add(p);
+            QUEUED.decrementAndGet();
+        }
+        if (batch.isEmpty()) return;
+        try {
+            append(file(), encode(batch));
+            written += batch.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to run history " + file(), e);
+        }
+    }
+
+    private static byte[] encode(List<Pending> batch) throws IOException {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            ids.putIfAbsent(p.scenario, ids.size());
+            ids.putIfAbsent(p.name, ids.size());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + batch.size() * 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(runId());
+        out.writeLong(STARTED_MS);
+        out.writeUTF(commit());
+        out.writeUTF(env());
+        writeVarLong(out, ids.size());
+        for (String s : ids.keySet()) out.writeUTF(s);
+        writeVarLong(out, batch.size());
+        for (Pending p : batch) {
+            out.writeByte(p.kind);
+            writeVarLong(out, ids.get(p.scenario));
+            writeVarLong(out, ids.get(p.name));
+            writeVarLong(out, p.micros);
+            out.writeByte(p.ok ? 1 : 0);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void append(Path file, byte[] payload) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer block = ByteBuffer.allocate(12 + payload.length);
+        block.putInt(MAGIC).putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            FileLock lock = ch.lock();
+            try {
+                while (block.hasRemaining()) ch.write(block);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /* ---------------- Reading ---------------- */
+
+    /** Every entry in the file, oldest first. Damaged blocks are skipped. */
+    public static List<Entry> read(Path file) throws IOException {
+        List<Entry> out = new ArrayList<>();
+        if (!Files.isRegularFile(file)) return out;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        int skipped = 0;
+        while (buf.remaining() >= 12) {
+            int start = buf.position();
+            int magic = buf.getInt();
+            int length = buf.getInt();
+            int crc = buf.getInt();
+            if (magic != MAGIC || length < 0 || length > buf.remaining()) {
+                skipped++;
+                buf.position(resync(buf, start + 1));
+                continue;
+            }
+            byte[] payload = new byte[length];
+            buf.get(payload);
+            CRC32 check = new CRC32();
+            check.update(payload);
+            if ((int) check.getValue() != crc) {
+                skipped++;
+                buf.position(resync(buf, start + 1));
+                continue;
+            }
+            decode(payload, out);
+        }
+        if (skipped > 0) System.out.printf("[history] skipped %d damaged block(s) in %s%n", skipped, file);
+        return out;
+    }
+
+    private static void decode(byte[] payload, List<Entry> out) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String run = in.readUTF();
+        long started = in.readLong();
+        String sha = in.readUTF();
+        String environment = in.readUTF();
+        int n = (int) readVarLong(in);
+        String[] strings = new String[n];
+        for (int i = 0; i < n; i++) strings[i] = in.readUTF();
+        long records = readVarLong(in);
+        for (long i = 0; i < records; i++) {
+            byte kind = in.readByte();
+            String scenario = strings[(int) readVarLong(in)];
+            String name = strings[(int) readVarLong(in)];
+            long micros = readVarLong(in);
+            boolean ok = in.readByte() != 0;
+            out.add(new Entry(run, started, sha, environment, kind, scenario, name, micros, ok));
+        }
+    }
+
+    /** Next offset at or after {@code from} where a block header could start. */
+    private static int resync(ByteBuffer buf, int from) {
+        for (int i = from; i + 4 <= buf.limit(); i++) {
+            if (buf.getInt(i) == MAGIC) return i;
+        }
+        return buf.limit();
+    }
+
+    /* ---------------- Run identity ---------------- */
+
+    /** Shared by all shards of one run when run-shards.sh passes {@code -Dhistory.runId}. */
+    static String runId() {
+        if (runId == null) runId = Config.get("history.runId", RUN_ID.format(Instant.ofEpochMilli(STARTED_MS)));
+        return runId;
+    }
+
+    /** {@code -Dhistory.commit}, else the checkout's short HEAD. */
+    static String commit() {
+        if (commit == null) {
+            String c = Config.get("history.commit", "");
+            commit = c.isEmpty() ? gitHead() : c;
+        }
+        return commit;
+    }
+
+    /** {@code -Dhistory.env}, else the base URL the suite ran against. */
+    static String env() {
+        return Config.get("history.env", Config.get("base.url", "live"));
+    }
+
+    private static String gitHead() {
+        try {
+            Process p = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String line;
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                line = r.readLine();
+            }
+            return p.waitFor() == 0 && line != null ? line.trim() : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    /* ---------------- Varints ---------------- */
+
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new EOFException("malformed varint");
+    }
+
+    /** Groups entries by a key, keeping file order. */
+    static <K> Map<K, List<Entry>> group(List<Entry> entries, Function<Entry, K> key) {
+        Map<K, List<Entry>> out = new LinkedHashMap<>();
+        for (Entry e : entries) out.computeIfAbsent(key.apply(e), k -> new ArrayList<>()).add(e);
+        return out;
+    }
+}
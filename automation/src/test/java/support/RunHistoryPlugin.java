@@ -0,0 +1,32 @@
+package support;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+
+/**
+ * Feeds step durations into {@link RunHistory} and tells it which scenario the worker is in, so waits
+ * booked by {@link WaitEngine} are keyed by scenario too. Concurrent listener: events arrive on the
+ * worker thread running the scenario.
+ */
+public class RunHistoryPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, e -> RunHistory.startScenario(e.getTestCase().getName()));
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, e -> RunHistory.finishScenario());
+    }
+
+    private void onStepFinished(TestStepFinished e) {
+        if (!(e.getTestStep() instanceof PickleStepTestStep)) return;
+        Status status = e.getResult().getStatus();
+        if (status == Status.SKIPPED || status == Status.UNDEFINED || status == Status.PENDING) return;
+        RunHistory.step(((PickleStepTestStep) e.getTestStep()).getStep().getText(),
+                e.getResult().getDuration().toNanos(), status == Status.PASSED);
+    }
+}
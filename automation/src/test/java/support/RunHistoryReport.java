@@ -0,0 +1,238 @@
+package support;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trends over {@link RunHistory}: for every step text and wait key, per-run p50/p95, the same percentiles
+ * over a moving window of runs, and whether the latest run is slower than the window before it.
+ * "Slower" needs both a one-sided Mann-Whitney U test below {@code --alpha} (rank based, so a few outliers
+ * don't decide it) and a median increase of at least {@code --min-change} percent.
+ * <p>
+ * {@code java -cp target/test-classes support.RunHistoryReport [options]}
+ * <pre>
+ *   --file path          history file (default run-history/history.bin, or -Dhistory.file)
+ *   --kind step|wait     only steps or only waits (default both)
+ *   --match text         only names containing text, e.g. "search for" or "ResultsPage."
+ *   --env env            only runs against this environment
+ *   --by-scenario        keep the same step in different scenarios apart
+ *   --runs N             runs shown per series (default 10)
+ *   --window N           runs per moving window and comparison baseline (default 5)
+ *   --alpha p            significance level (default 0.01)
+ *   --min-change pct     smallest median increase worth flagging (default 10)
+ *   --fail               exit 1 when a slowdown is flagged
+ * </pre>
+ * Timed-out waits and failed steps are counted but left out of the percentiles.
+ */
+public final class RunHistoryReport {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("MM-dd HH:mm").withZone(ZoneOffset.UTC);
+    private static final int MIN_SAMPLES = 3;
+
+    /** One run's samples for a series. */
+    private static final class RunSamples {
+        final String runId;
+        final long startedMs;
+        final String commit;
+        final List<Double> ms = new ArrayList<>();
+        int failed;
+
+        RunSamples(RunHistory.Entry e) {
+            this.runId = e.runId;
+            this.startedMs = e.runStartedMs;
+            this.commit = e.commit;
+        }
+    }
+
+    /** Outcome of comparing the latest run with the window before it. */
+    static final class Comparison {
+        final double before;
+        final double after;
+        final double p;
+
+        Comparison(double before, double after, double p) {
+            this.before = before;
+            this.after = after;
+            this.p = p;
+        }
+
+        double changePct() {
+            return before == 0 ? 0 : 100 * (after - before) / before;
+        }
+    }
+
+    private RunHistoryReport() {}
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = parse(args);
+        Path file = Paths.get(opts.getOrDefault("file", RunHistory.file().toString()));
+        String kind = opts.get("kind");
+        String match = opts.get("match");
+        String env = opts.get("env");
+        boolean byScenario = opts.containsKey("by-scenario");
+        int runs = Integer.parseInt(opts.getOrDefault("runs", "10"));
+        int window = Integer.parseInt(opts.getOrDefault("window", "5"));
+        double alpha = Double.parseDouble(opts.getOrDefault("alpha", "0.01"));
+        double minChange = Double.parseDouble(opts.getOrDefault("min-change", "10"));
+
+        List<RunHistory.Entry> entries = RunHistory.read(file);
+        entries.removeIf(e -> (kind != null && !kind.equals(kindName(e.kind)))
+                || (match != null && !e.name.contains(match))
+                || (env != null && !env.equals(e.env)));
+        if (entries.isEmpty()) {
+            System.out.printf("[history] nothing recorded in %s for these filters%n", file.toAbsolutePath());
+            return;
+        }
+
+        Map<String, List<RunHistory.Entry>> series = new TreeMap<>(RunHistory.group(entries, e ->
+                kindName(e.kind) + " | " + e.env + " | " + (byScenario ? e.scenario + " | " : "") + e.name));
+        List<String> slower = new ArrayList<>();
+        for (Map.Entry<String, List<RunHistory.Entry>> s : series.entrySet()) {
+            List<RunSamples> perRun = perRun(s.getValue());
+            System.out.printf("%n[history] %s%n", s.getKey());
+            System.out.printf("  %-18s %-9s %-11s %4s %7s %7s   %-18s%n", "run", "commit", "started", "n", "p50", "p95",
+                    "window p50/p95");
+            for (int i = Math.max(0, perRun.size() - runs); i < perRun.size(); i++) {
+                RunSamples r = perRun.get(i);
+                List<Double> pooled = pool(perRun.subList(Math.max(0, i + 1 - window), i + 1));
+                System.out.printf(Locale.ROOT, "  %-18s %-9s %-11s %4d %7s %7s   %7s/%-7s%s%n", r.runId, r.commit,
+                        DAY.format(Instant.ofEpochMilli(r.startedMs)), r.ms.size(), pct(sorted(r.ms), 50), pct(sorted(r.ms), 95),
+                        pct(pooled, 50), pct(pooled, 95), r.failed > 0 ? "  " + r.failed + " failed/timed out" : "");
+            }
+            if (perRun.size() < 2) continue;
+            RunSamples latest = perRun.get(perRun.size() - 1);
+            List<Double> baseline = pool(perRun.subList(Math.max(0, perRun.size() - 1 - window), perRun.size() - 1));
+            if (latest.ms.size() < MIN_SAMPLES || baseline.size() < MIN_SAMPLES) {
+                System.out.printf("  latest vs previous runs: too few samples (%d vs %d, need %d each)%n",
+                        latest.ms.size(), baseline.size(), MIN_SAMPLES);
+                continue;
+            }
+            Comparison c = compare(baseline, latest.ms);
+            boolean flagged = c.p < alpha && c.changePct() >= minChange;
+            System.out.printf(Locale.ROOT, "  latest vs previous %d runs: p50 %.0f -> %.0f ms (%+.0f%%), Mann-Whitney p=%.4f%s%n",
+                    Math.min(window, perRun.size() - 1), c.before, c.after, c.changePct(), c.p, flagged ? "  SLOWER" : "");
+            if (flagged) slower.add(String.format(Locale.ROOT, "%s: p50 %.0f -> %.0f ms (%+.0f%%, p=%.4f) in run %s (%s)",
+                    s.getKey(), c.before, c.after, c.changePct(), c.p, latest.runId, latest.commit));
+        }
+
+        System.out.println();
+        if (slower.isEmpty()) {
+            System.out.printf("[history] no significant slowdowns in the latest runs (%d series, %d durations)%n", series.size(), entries.size());
+            return;
+        }
+        System.out.printf("[history] %d significant slowdown(s):%n", slower.size());
+        slower.forEach(s -> System.out.println("  " + s));
+        if (opts.containsKey("fail")) System.exit(1);
+    }
+
+    /* ---------------- Statistics ---------------- */
+
+    /**
+     * One-sided Mann-Whitney U: p-value for "{@code after} tends to be larger than {@code before}", by the
+     * normal approximation with tie correction and continuity correction.
+     */
+    static Comparison compare(List<Double> before, List<Double> after) {
+        int n1 = after.size();
+        int n2 = before.size();
+        int n = n1 + n2;
+        double[][] all = new double[n][2]; // {value, 1 if from after}
+        for (int i = 0; i < n1; i++) all[i] = new double[]{after.get(i), 1};
+        for (int i = 0; i < n2; i++) all[n1 + i] = new double[]{before.get(i), 0};
+        Arrays.sort(all, Comparator.comparingDouble(a -> a[0]));
+
+        double rankSumAfter = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && all[j + 1][0] == all[i][0]) j++;
+            double rank = (i + j) / 2.0 + 1; // average rank of the tied run
+            for (int k = i; k <= j; k++) if (all[k][1] == 1) rankSumAfter += rank;
+            int t = j - i + 1;
+            tieTerm += (double) t * t * t - t;
+            i = j + 1;
+        }
+        double u = rankSumAfter - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double sd = Math.sqrt(n1 * (double) n2 / 12 * ((n + 1) - tieTerm / ((double) n * (n - 1))));
+        double p = sd == 0 ? 0.5 : 1 - normalCdf((u - mean - 0.5) / sd);
+        return new Comparison(median(sorted(before)), median(sorted(after)), p);
+    }
+
+    /** Standard normal CDF via erfc (Numerical Recipes' Chebyshev fit, |error| < 1.2e-7). */
+    static double normalCdf(double z) {
+        double x = -z / Math.sqrt(2);
+        double t = 1 / (1 + 0.5 * Math.abs(x));
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return 0.5 * (x >= 0 ? erfc : 2 - erfc);
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static List<RunSamples> perRun(List<RunHistory.Entry> entries) {
+        Map<String, RunSamples> runs = new HashMap<>();
+        for (RunHistory.Entry e : entries) {
+            RunSamples r = runs.computeIfAbsent(e.runId, id -> new RunSamples(e));
+            if (e.ok) r.ms.add(e.micros / 1000.0);
+            else r.failed++;
+        }
+        List<RunSamples> out = new ArrayList<>(runs.values());
+        out.sort(Comparator.comparingLong((RunSamples r) -> r.startedMs).thenComparing(r -> r.runId));
+        return out;
+    }
+
+    private static List<Double> pool(List<RunSamples> runs) {
+        List<Double> out = new ArrayList<>();
+        for (RunSamples r : runs) out.addAll(r.ms);
+        Collections.sort(out);
+        return out;
+    }
+
+    private static List<Double> sorted(List<Double> values) {
+        List<Double> out = new ArrayList<>(values);
+        Collections.sort(out);
+        return out;
+    }
+
+    private static double median(List<Double> sorted) {
+        int n = sorted.size();
+        return n % 2 == 1 ? sorted.get(n / 2) : (sorted.get(n / 2 - 1) + sorted.get(n / 2)) / 2;
+    }
+
+    /** Nearest-rank percentile, "-" when there are no samples. */
+    private static String pct(List<Double> sorted, int p) {
+        if (sorted.isEmpty()) return "-";
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+        return String.valueOf(Math.round(sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)))));
+    }
+
+    private static String kindName(byte kind) {
+        return kind == RunHistory.STEP ? "step" : kind == RunHistory.WAIT ? "wait" : "kind" + kind;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> out = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            String key = args[i].substring(2);
+            boolean flag = key.equals("by-scenario") || key.equals("fail");
+            if (!flag && i + 1 >= args.length) throw new IllegalArgumentException("--" + key + " needs a value");
+            out.put(key, flag ? "true" : args[++i]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,46 @@
+package support;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records each scenario's wall-clock duration for shard balancing. Writes this run's numbers to
+ * the shard directory; an unsharded run also folds them straight into the history file (sharded
+ * runs are folded by {@link ShardReportMerger} so parallel processes never race on it).
+ */
+public class ScenarioDurationPlugin implements ConcurrentEventListener {
+
+    private final Map<String, Long> measured = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, e -> write());
+    }
+
+    private void onCaseFinished(TestCaseFinished e) {
+        TestCase tc = e.getTestCase();
+        measured.put(ScenarioDurations.key(tc.getUri().toString(), tc.getLocation().getLine()),
+                e.getResult().getDuration().toMillis());
+    }
+
+    private void write() {
+        if (measured.isEmpty()) return;
+        Map<String, Long> sorted = new TreeMap<>(measured);
+        try {
+            ScenarioDurations.save(ScenarioDurations.runFile(), sorted,
+                    "Scenario durations (ms) of shard " + Shard.index() + "/" + Shard.count());
+            if (!Shard.enabled()) ScenarioDurations.foldIntoHistory(sorted);
+        } catch (IOException ex) {
+            System.out.printf("[shard] could not record scenario durations: %s%n", ex.getMessage());
+        }
+    }
+}
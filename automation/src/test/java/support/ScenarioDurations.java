@@ -0,0 +1,96 @@
+package support;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Scenario durations (ms) keyed by "features/File.feature:line", as recorded by
+ * {@link ScenarioDurationPlugin} and used by {@link ShardFilter} to balance shards.
+ * <p>
+ * The history file ({@code -Dshard.durations}, default {@code scenario-durations.properties} in the
+ * module dir; keep it in the CI cache) holds an EWMA per scenario so one slow run doesn't skew the plan.
+ */
+public final class ScenarioDurations {
+
+    private static final double EWMA_WEIGHT = 0.5;
+    private static final long UNKNOWN_MS = 30_000;
+
+    private ScenarioDurations() {}
+
+    public static Path historyFile() {
+        return Paths.get(Config.get("shard.durations", "scenario-durations.properties"));
+    }
+
+    /** This run's measurements go next to the shard's other reports. */
+    public static Path runFile() {
+        return Shard.dir().resolve("scenario-durations.properties");
+    }
+
+    /** Same key for a cucumber TestCase uri ("classpath:features/x.feature") and a JUnit source path. */
+    public static String key(String uriOrPath, int line) {
+        String p = uriOrPath.replace('\\', '/');
+        int at = p.lastIndexOf("features/");
+        if (at >= 0) p = p.substring(at);
+        else if (p.startsWith("classpath:")) p = p.substring("classpath:".length());
+        return p + ":" + line;
+    }
+
+    public static Map<String, Long> load(Path file) {
+        Map<String, Long> out = new TreeMap<>();
+        if (!Files.isRegularFile(file)) return out;
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(r);
+        } catch (IOException e) {
+            System.out.printf("[shard] ignoring unreadable durations %s: %s%n", file, e.getMessage());
+            return out;
+        }
+        props.forEach((k, v) -> {
+            try {
+                out.put(k.toString(), Long.parseLong(v.toString().trim()));
+            } catch (NumberFormatException ignored) {}
+        });
+        return out;
+    }
+
+    public static void save(Path file, Map<String, Long> durations, String comment) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Properties props = new Properties();
+        durations.forEach((k, v) -> props.setProperty(k, String.valueOf(v)));
+        Path tmp = Files.createTempFile(dir, "durations", ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            props.store(w, comment);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Folds fresh measurements into the history file (EWMA per scenario). */
+    public static void foldIntoHistory(Map<String, Long> measured) throws IOException {
+        if (measured.isEmpty()) return;
+        Path file = historyFile();
+        Map<String, Long> history = load(file);
+        measured.forEach((k, ms) -> history.merge(k, ms,
+                (old, now) -> Math.round(old * (1 - EWMA_WEIGHT) + now * EWMA_WEIGHT)));
+        save(file, history, "Scenario durations (ms, EWMA) used to balance shards");
+    }
+
+    /** Estimate for scenarios with no recorded duration yet. */
+    public static long median(Map<String, Long> history) {
+        if (history.isEmpty()) return UNKNOWN_MS;
+        List<Long> values = new ArrayList<>(history.values());
+        values.sort(null);
+        return values.get(values.size() / 2);
+    }
+}
@@ -0,0 +1,234 @@
+package support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Browser-side search timings. {@link #install} drops a probe into the page before typing; it
+ * stamps {@code performance.now()} on the first keystroke and on Enter (keydown, capture phase) and
+ * a MutationObserver stamps the first visible suggestion, and the first result rows and results-count
+ * text that differ from what was showing at Enter. The marks are also published via performance.mark
+ * so they show up in DevTools traces.
+ * <p>
+ * Samples are aggregated per query into p50/p95/p99, written to {@code target/search-latency.json}
+ * and checked against {@code -Dlatency.budget.<metric>.<p50|p95|p99>=ms} at the end of the run.
+ */
+public final class SearchLatency {
+
+    public static final String KEY_TO_SUGGESTION = "keyToFirstSuggestion";
+    public static final String ENTER_TO_ROW = "enterToFirstRow";
+    public static final String ENTER_TO_COUNT = "enterToResultsCount";
+
+    private static final List<String> METRICS = List.of(KEY_TO_SUGGESTION, ENTER_TO_ROW, ENTER_TO_COUNT);
+    private static final int[] PERCENTILES = {50, 95, 99};
+
+    private static final String ROWS_CSS = ".sports-search-panel .search-dropdown__item:not(.search-dropdown__item--hidden)";
+    private static final String COUNT_CSS = ".sports-search-panel .search-results-count";
+
+    private static final String NO_RESULTS_CSS = ".sports-search-panel .search-dropdown--no-results .search-no-results";
+
+    /*
+     * Row and count are only stamped from DOM mutations after Enter, and only once what is on screen
+     * differs from what was there at Enter (other text, or freshly rendered nodes for the same text)
+     * while the input still holds the submitted query, so rows left over from the previous search don't
+     * count as a 0 ms response and a re-render of identical results still does.
+     */
+    private static final String INSTALL_JS =
+            Readiness.VISIBLE_FN
+          + "if (window.__searchLat && window.__searchLat.obs) window.__searchLat.obs.disconnect();"
+          + "var L = window.__searchLat = { firstKey: null, suggestion: null, enter: null, row: null, count: null,"
+          + "  query: null, rowsAtEnter: null, countAtEnter: null };"
+          + "function mark(name) { var t = performance.now(); try { performance.mark('search:' + name); } catch (e) {} return t; }"
+          + "function anyVisible(css) { var els = document.querySelectorAll(css);"
+          + "  for (var i = 0; i < els.length; i++) if (visible(els[i])) return els[i]; return null; }"
+          + "function rows() { var els = document.querySelectorAll('" + ROWS_CSS + "'), out = [];"
+          + "  for (var i = 0; i < els.length; i++) if (visible(els[i])) out.push(els[i]); return out; }"
+          + "function count() { var c = anyVisible('" + COUNT_CSS + "'); return c && /\\(\\d+\\)/.test(c.innerText) ? c : null; }"
+          // [nodes, text] snapshot; differs when either the rendered nodes or their text changed
+          + "function snap(els) { return { nodes: els, text: els.map(function (e) { return e.innerText; }).join('\\n') }; }"
+          + "function countSnap() { var c = count(); return snap(c ? [c].concat(Array.prototype.slice.call(c.childNodes)) : []); }"
+          + "function differs(a, b) { if (a.text !== b.text || a.nodes.length !== b.nodes.length) return true;"
+          + "  for (var i = 0; i < a.nodes.length; i++) if (a.nodes[i] !== b.nodes[i]) return true; return false; }"
+          + "function input() { return document.getElementById('search-input'); }"
+          + "function check() {"
+          + "  if (L.firstKey !== null && L.suggestion === null && anyVisible(\"[role='listbox'] [role='option']\")) L.suggestion = mark('suggestion');"
+          + "  if (L.enter === null) return;"
+          + "  var inp = input();"
+          + "  if (!inp || inp.value !== L.query) return;"
+          + "  if (L.row === null) { var r = snap(rows()); if (r.nodes.length && differs(r, L.rowsAtEnter)) L.row = mark('row'); }"
+          + "  if (L.count === null) { var c = countSnap(); if (c.nodes.length && differs(c, L.countAtEnter)) L.count = mark('count'); }"
+          + "}"
+          + "document.addEventListener('keydown', function (e) {"
+          + "  if (!e.target || e.target.id !== 'search-input' || window.__searchLat !== L) return;"
+          + "  if (L.firstKey === null) L.firstKey = mark('keystroke');"
+          + "  if (e.key === 'Enter' && L.enter === null) {"
+          + "    L.query = e.target.value; L.rowsAtEnter = snap(rows()); L.countAtEnter = countSnap();"
+          + "    L.enter = mark('enter');"
+          + "  }"
+          + "}, true);"
+          + "L.obs = new MutationObserver(check);"
+          + "L.obs.observe(document.documentElement, { childList: true, subtree: true, characterData: true, attributes: true });";
+
+    /** True once Enter's results are stamped (rows and count) or the no-results box is showing. */
+    private static final String ANSWERED_JS =
+            Readiness.VISIBLE_FN
+          + "var L = window.__searchLat; if (!L || L.enter === null) return false;"
+          + "if (L.row !== null && L.count !== null) return true;"
+          + "var els = document.querySelectorAll('" + NO_RESULTS_CSS + "');"
+          + "for (var i = 0; i < els.length; i++) if (visible(els[i])) return true;"
+          + "return false;";
+
+    private static final String COLLECT_JS =
+            Readiness.VISIBLE_FN
+          + "var L = window.__searchLat; if (!L) return null;"
+          + "if (L.obs) L.obs.disconnect();"
+          + "function d(a, b) { return a === null || b === null ? null : Math.round(b - a); }"
+          + "var noResults = false, els = document.querySelectorAll('" + NO_RESULTS_CSS + "');"
+          + "for (var i = 0; i < els.length; i++) if (visible(els[i])) noResults = true;"
+          + "return { keyToFirstSuggestion: d(L.firstKey, L.suggestion), enterToFirstRow: d(L.enter, L.row),"
+          + "  enterToResultsCount: d(L.enter, L.count), noResults: noResults };";
+
+    /** query -> metric -> samples (ms) */
+    private static final Map<String, Map<String, List<Long>>> SAMPLES = new ConcurrentHashMap<>();
+    /** query -> metric -> searches where the metric should have been observed but wasn't */
+    private static final Map<String, Map<String, AtomicLong>> MISSING = new ConcurrentHashMap<>();
+
+    private SearchLatency() {}
+
+    /** Arms the probe. Call after the overlay is open and before the first keystroke. */
+    public static void install(WebDriver driver) {
+        ((JavascriptExecutor) driver).executeScript(INSTALL_JS);
+    }
+
+    /**
+     * Waits until the probe has stamped Enter's rows and count, or the no-results box shows. Call before
+     * {@link #collect}: the results page can already look loaded from a debounced search that rendered
+     * before Enter. False on timeout; {@link #collect} then books the missing metrics.
+     */
+    public static boolean awaitAnswer(WebDriver driver, int timeoutSec) {
+        try {
+            WaitEngine.until(driver, "SearchLatency.awaitAnswer", Duration.ofSeconds(timeoutSec),
+                    d -> Boolean.TRUE.equals(((JavascriptExecutor) d).executeScript(ANSWERED_JS)) ? Boolean.TRUE : null);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the probe and records whatever was observed for this query. Returns metric -> ms. A metric
+     * that wasn't observed is booked as missing (row and count aren't expected when the search found
+     * nothing), which {@link #budgetViolations} reports for budgeted metrics.
+     */
+    public static Map<String, Long> collect(WebDriver driver, String query) {
+        Object raw = ((JavascriptExecutor) driver).executeScript(COLLECT_JS);
+        Map<String, Long> observed = new LinkedHashMap<>();
+        if (!(raw instanceof Map)) return observed;
+        boolean noResults = Boolean.TRUE.equals(((Map<?, ?>) raw).get("noResults"));
+        Map<String, List<Long>> perQuery = SAMPLES.computeIfAbsent(query, q -> new ConcurrentHashMap<>());
+        for (String metric : METRICS) {
+            Object v = ((Map<?, ?>) raw).get(metric);
+            if (v instanceof Number) {
+                long ms = ((Number) v).longValue();
+                observed.put(metric, ms);
+                perQuery.computeIfAbsent(metric, m -> Collections.synchronizedList(new ArrayList<>())).add(ms);
+            } else if (!(noResults && !metric.equals(KEY_TO_SUGGESTION))) {
+                MISSING.computeIfAbsent(query, q -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(metric, m -> new AtomicLong()).incrementAndGet();
+            }
+        }
+        System.out.printf("[latency] %s %s%n", query, observed);
+        return observed;
+    }
+
+    /** query -> metric -> {n, p50, p95, p99, max} */
+    public static Map<String, Map<String, Map<String, Long>>> summary() {
+        Map<String, Map<String, Map<String, Long>>> out = new TreeMap<>();
+        SAMPLES.forEach((query, metrics) -> {
+            Map<String, Map<String, Long>> perMetric = new TreeMap<>();
+            metrics.forEach((metric, samples) -> {
+                List<Long> sorted;
+                synchronized (samples) {
+                    sorted = new ArrayList<>(samples);
+                }
+                if (sorted.isEmpty()) return;
+                Collections.sort(sorted);
+                Map<String, Long> stats = new LinkedHashMap<>();
+                stats.put("n", (long) sorted.size());
+                for (int p : PERCENTILES) stats.put("p" + p, percentile(sorted, p));
+                stats.put("max", sorted.get(sorted.size() - 1));
+                perMetric.put(metric, stats);
+            });
+            out.put(query, perMetric);
+        });
+        return out;
+    }
+
+    /** Writes the summary as JSON (default target/search-latency.json, -Dlatency.report to move it). */
+    public static Path writeReport() {
+        if (SAMPLES.isEmpty()) return null;
+        Path file = Paths.get(Config.get("latency.report", "target/search-latency.json"));
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(summary()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+        }
+        System.out.printf("[latency] report written to %s%n", file.toAbsolutePath());
+        return file;
+    }
+
+    /**
+     * Budget violations, e.g. "Arsenal enterToFirstRow p95=2100 ms > 1500 ms", or "Arsenal enterToFirstRow
+     * not measured in 2 search(es)" for a budgeted metric the probe missed. Empty when within budget.
+     */
+    public static List<String> budgetViolations() {
+        List<String> violations = new ArrayList<>();
+        new TreeMap<>(MISSING).forEach((query, metrics) -> new TreeMap<>(metrics).forEach((metric, n) -> {
+            if (budgeted(metric) && n.get() > 0) {
+                violations.add(String.format("%s %s not measured in %d search(es)", query, metric, n.get()));
+            }
+        }));
+        summary().forEach((query, metrics) -> metrics.forEach((metric, stats) -> {
+            for (int p : PERCENTILES) {
+                int budget = Config.getInt("latency.budget." + metric + ".p" + p, -1);
+                Long actual = stats.get("p" + p);
+                if (budget >= 0 && actual != null && actual > budget) {
+                    violations.add(String.format("%s %s p%d=%d ms > %d ms", query, metric, p, actual, budget));
+                }
+            }
+        }));
+        return violations;
+    }
+
+    private static boolean budgeted(String metric) {
+        for (int p : PERCENTILES) {
+            if (Config.getInt("latency.budget." + metric + ".p" + p, -1) >= 0) return true;
+        }
+        return false;
+    }
+
+    /** Nearest-rank percentile over a sorted list. */
+    static long percentile(List<Long> sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+}
@@ -0,0 +1,104 @@
+package support;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Resident memory of a Chrome session (browser process + renderers/GPU/utility children), read
+ * from /proc so worker counts can be sized per box. Linux only; other platforms report nothing.
+ */
+public final class SessionMemory {
+
+    private static final Map<BrowserProfile, Stats> STATS = new ConcurrentHashMap<>();
+
+    private SessionMemory() {}
+
+    /** Logs the session's RSS and folds it into the per-profile summary. */
+    public static void record(WebDriver driver, BrowserProfile profile) {
+        long kb;
+        try {
+            kb = rssKb(driver);
+        } catch (RuntimeException e) {
+            return; // session already gone; nothing to measure
+        }
+        if (kb < 0 || profile == null) return;
+        Stats s = STATS.computeIfAbsent(profile, p -> new Stats());
+        s.samples.increment();
+        s.totalKb.add(kb);
+        s.maxKb.accumulate(kb);
+        System.out.printf("[SessionMemory] %s profile=%s rss=%d MB%n",
+                Thread.currentThread().getName(), profile, kb / 1024);
+    }
+
+    public static void printSummary() {
+        STATS.forEach((profile, s) -> {
+            long n = s.samples.sum();
+            if (n == 0) return;
+            System.out.printf("[SessionMemory] profile=%s samples=%d avg=%d MB max=%d MB%n",
+                    profile, n, s.totalKb.sum() / n / 1024, s.maxKb.get() / 1024);
+        });
+    }
+
+    /** Total RSS in KB, or -1 when it can't be determined. */
+    public static long rssKb(WebDriver driver) {
+        Optional<String> userDataDir = userDataDir(driver);
+        if (userDataDir.isEmpty() || !Files.isDirectory(Paths.get("/proc"))) return -1;
+        String flag = "--user-data-dir=" + userDataDir.get();
+
+        // The browser process is the one carrying the flag whose parent doesn't (chromedriver's child).
+        Optional<ProcessHandle> browser = ProcessHandle.allProcesses()
+                .filter(ph -> hasFlag(ph, flag))
+                .filter(ph -> ph.parent().map(pp -> !hasFlag(pp, flag)).orElse(true))
+                .findFirst();
+        if (browser.isEmpty()) return -1;
+
+        return Stream.concat(Stream.of(browser.get()), browser.get().descendants())
+                .mapToLong(ph -> vmRssKb(ph.pid()))
+                .filter(kb -> kb > 0)
+                .sum();
+    }
+
+    private static Optional<String> userDataDir(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) return Optional.empty();
+        Capabilities caps = ((HasCapabilities) driver).getCapabilities();
+        Object chrome = caps.getCapability("chrome");
+        if (chrome instanceof Map) {
+            Object dir = ((Map<?, ?>) chrome).get("userDataDir");
+            if (dir != null) return Optional.of(dir.toString());
+        }
+        return Optional.empty();
+    }
+
+    private static boolean hasFlag(ProcessHandle ph, String flag) {
+        return ph.info().commandLine().map(c -> c.contains(flag)).orElse(false);
+    }
+
+    private static long vmRssKb(long pid) {
+        try (Stream<String> lines = Files.lines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+            return lines.filter(l -> l.startsWith("VmRSS:"))
+                    .map(l -> l.replaceAll("\\D+", ""))
+                    .mapToLong(Long::parseLong)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static final class Stats {
+        final LongAdder samples = new LongAdder();
+        final LongAdder totalKb = new LongAdder();
+        final LongAccumulator maxKb = new LongAccumulator(Math::max, 0);
+    }
+}
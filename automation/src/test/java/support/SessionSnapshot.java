@@ -0,0 +1,195 @@
+package support;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Skips the homepage bootstrap (navigation, consent banner, scroll reset) after the first scenario on a
+ * worker. Once a worker has bootstrapped a base URL, {@link #capture} keeps the ready state: the cookies
+ * (consent included), the origin's localStorage and the sportsbook route the page ended up on. Later
+ * {@link #restore} calls put that state back through CDP ({@code Network.setCookies}, plus a one-shot
+ * {@code Page.addScriptToEvaluateOnNewDocument} that fills localStorage) and make a single navigation.
+ * A restore only counts when the search trigger is visible and the consent cookies survived. Otherwise the
+ * snapshot is dropped and the caller bootstraps as usual.
+ * <p>
+ * Needs a Chromium session; {@code -Dsession.snapshot=false} turns it off.
+ */
+public final class SessionSnapshot {
+
+    private static final String READ_STORAGE_JS =
+            "var o = {}; for (var i = 0; i < localStorage.length; i++) { var k = localStorage.key(i); o[k] = localStorage.getItem(k); }"
+          + "return o;";
+
+    /** Fields of a Network.getCookies entry that Network.setCookies accepts back. */
+    private static final Set<String> COOKIE_FIELDS = Set.of("name", "value", "domain", "path", "secure", "httpOnly", "sameSite", "expires");
+
+    private static final class State {
+        final String url;
+        final List<Map<String, Object>> cookies;
+        final Map<String, String> storage;
+        final long bootstrapMs;
+
+        State(String url, List<Map<String, Object>> cookies, Map<String, String> storage, long bootstrapMs) {
+            this.url = url;
+            this.cookies = cookies;
+            this.storage = storage;
+            this.bootstrapMs = bootstrapMs;
+        }
+    }
+
+    /** Per worker: requested base URL -> ready state. */
+    private static final ThreadLocal<Map<String, State>> STATES = ThreadLocal.withInitial(HashMap::new);
+
+    private static final AtomicLong CAPTURES = new AtomicLong();
+    private static final AtomicLong RESTORES = new AtomicLong();
+    private static final AtomicLong FALLBACKS = new AtomicLong();
+    private static final AtomicLong BOOTSTRAP_MS = new AtomicLong();
+    private static final AtomicLong RESTORE_MS = new AtomicLong();
+    private static final AtomicLong SAVED_MS = new AtomicLong();
+
+    private SessionSnapshot() {}
+
+    public static boolean enabled() {
+        return Config.getBool("session.snapshot", true);
+    }
+
+    /**
+     * Restores this worker's ready state for {@code url} and opens its route. True when the page is ready
+     * (search trigger visible within {@code timeoutMs}); false when there is nothing to restore or the
+     * restore did not hold, and the caller should bootstrap.
+     */
+    public static boolean restore(WebDriver driver, String url, List<By> searchTriggers, long timeoutMs) {
+        if (!enabled()) return false;
+        State state = STATES.get().get(url);
+        HasCdp cdp = cdp(driver);
+        if (state == null || cdp == null) return false;
+
+        long started = System.nanoTime();
+        String scriptId = null;
+        try {
+            if (!state.cookies.isEmpty()) cdp.executeCdpCommand("Network.setCookies", Map.of("cookies", state.cookies));
+            if (!state.storage.isEmpty()) {
+                scriptId = String.valueOf(cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                        Map.of("source", storageScript(state))).get("identifier"));
+            }
+            driver.get(state.url);
+            boolean ready = Readiness.firstVisible(driver, timeoutMs, searchTriggers) != null && consentKept(cdp, state);
+            long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (!ready) {
+                STATES.get().remove(url);
+                FALLBACKS.incrementAndGet();
+                System.out.printf("[snapshot] restore of %s did not hold after %d ms; bootstrapping%n", state.url, tookMs);
+                return false;
+            }
+            long saved = Math.max(0, state.bootstrapMs - tookMs);
+            RESTORES.incrementAndGet();
+            RESTORE_MS.addAndGet(tookMs);
+            SAVED_MS.addAndGet(saved);
+            System.out.printf("[snapshot] restored %s in %d ms (bootstrap %d ms, saved %d ms)%n", state.url, tookMs, state.bootstrapMs, saved);
+            return true;
+        } catch (WebDriverException e) {
+            STATES.get().remove(url);
+            FALLBACKS.incrementAndGet();
+            System.out.printf("[snapshot] restore failed, bootstrapping: %s%n", e.getMessage());
+            return false;
+        } finally {
+            if (scriptId != null) removeScript(cdp, scriptId);
+        }
+    }
+
+    /** Keeps the ready state of a page that was just bootstrapped from {@code url}, started at {@code startedNanos}. */
+    public static void capture(WebDriver driver, String url, long startedNanos) {
+        if (!enabled()) return;
+        long bootstrapMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        BOOTSTRAP_MS.addAndGet(bootstrapMs);
+        HasCdp cdp = cdp(driver);
+        if (cdp == null) return;
+        try {
+            String route = driver.getCurrentUrl();
+            Map<String, Object> r = cdp.executeCdpCommand("Network.getCookies", Map.of("urls", List.of(route)));
+            List<Map<String, Object>> cookies = new ArrayList<>();
+            if (r.get("cookies") instanceof List) {
+                for (Object o : (List<?>) r.get("cookies")) {
+                    Map<String, Object> c = new LinkedHashMap<>();
+                    ((Map<?, ?>) o).forEach((k, v) -> {
+                        if (COOKIE_FIELDS.contains(String.valueOf(k))) c.put(String.valueOf(k), v);
+                    });
+                    if (Boolean.TRUE.equals(((Map<?, ?>) o).get("session"))) c.remove("expires");
+                    cookies.add(c);
+                }
+            }
+            Map<String, String> storage = new LinkedHashMap<>();
+            Object s = ((JavascriptExecutor) driver).executeScript(READ_STORAGE_JS);
+            if (s instanceof Map) ((Map<?, ?>) s).forEach((k, v) -> storage.put(String.valueOf(k), String.valueOf(v)));
+            STATES.get().put(url, new State(route, cookies, storage, bootstrapMs));
+            CAPTURES.incrementAndGet();
+            System.out.printf("[snapshot] captured %s after %d ms bootstrap: %d cookies, %d storage keys%n",
+                    route, bootstrapMs, cookies.size(), storage.size());
+        } catch (WebDriverException e) {
+            System.out.printf("[snapshot] could not capture ready state: %s%n", e.getMessage());
+        }
+    }
+
+    /** One line for the end-of-run log, empty when nothing was captured. */
+    public static String summary() {
+        long captures = CAPTURES.get();
+        if (captures == 0) return "";
+        long restores = RESTORES.get();
+        return String.format("%d captured (avg bootstrap %d ms), %d restored (avg %d ms), %d fell back; saved %d ms in total, %d ms per restored scenario",
+                captures, BOOTSTRAP_MS.get() / captures, restores, restores == 0 ? 0 : RESTORE_MS.get() / restores,
+                FALLBACKS.get(), SAVED_MS.get(), restores == 0 ? 0 : SAVED_MS.get() / restores);
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    /** Writes the captured keys before any page script runs, on the captured origin only. */
+    private static String storageScript(State state) {
+        Json json = new Json();
+        return "(function () { try {"
+             + "  if (location.origin !== new URL(" + json.toJson(state.url) + ").origin) return;"
+             + "  var items = " + json.toJson(state.storage) + ";"
+             + "  Object.keys(items).forEach(function (k) { if (localStorage.getItem(k) === null) localStorage.setItem(k, items[k]); });"
+             + "} catch (e) {} })();";
+    }
+
+    private static boolean consentKept(HasCdp cdp, State state) {
+        Map<String, Object> r = cdp.executeCdpCommand("Network.getCookies", Map.of("urls", List.of(state.url)));
+        Set<Object> names = r.get("cookies") instanceof List
+                ? ((List<?>) r.get("cookies")).stream().map(c -> ((Map<?, ?>) c).get("name")).collect(Collectors.toSet())
+                : Set.of();
+        return state.cookies.stream().allMatch(c -> names.contains(c.get("name")));
+    }
+
+    /** The session's CDP handle; falls back to the undecorated driver when a decorator hides it. */
+    private static HasCdp cdp(WebDriver driver) {
+        if (driver instanceof HasCdp) return (HasCdp) driver;
+        try {
+            WebDriver raw = DriverManager.getRawDriver();
+            return raw instanceof HasCdp ? (HasCdp) raw : null;
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static void removeScript(HasCdp cdp, String scriptId) {
+        try {
+            cdp.executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", scriptId));
+        } catch (WebDriverException ignored) {
+            // session gone; the pool evicts it
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package support;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/** This process's shard: -Dshard.index (0-based) of -Dshard.count. One shard of one when unset. */
+public final class Shard {
+
+    private Shard() {}
+
+    public static int index() {
+        return Config.getInt("shard.index", 0);
+    }
+
+    public static int count() {
+        return Math.max(1, Config.getInt("shard.count", 1));
+    }
+
+    public static boolean enabled() {
+        return count() > 1;
+    }
+
+    /** Where this shard's reports go (-Dshard.dir, set by the pom). */
+    public static Path dir() {
+        return Paths.get(Config.get("shard.dir", "target/shard-" + index()));
+    }
+}
@@ -0,0 +1,103 @@
+package support;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FilePosition;
+import org.junit.platform.engine.support.descriptor.FileSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps only this shard's scenarios (auto-registered via META-INF/services; inactive unless
+ * -Dshard.count > 1). Every shard builds the same plan from the full scenario list and the recorded
+ * durations: longest-processing-time first, each scenario to the currently lightest shard, so all
+ * shards finish at about the same time. Scenarios without history get the median known duration.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+
+    private TestDescriptor plannedFor;
+    private Map<String, Integer> plan;
+
+    @Override
+    public synchronized FilterResult apply(TestDescriptor descriptor) {
+        if (!Shard.enabled() || !descriptor.isTest()) return FilterResult.included("sharding off");
+        Optional<String> key = key(descriptor);
+        if (key.isEmpty()) return FilterResult.included("no feature source");
+
+        TestDescriptor root = root(descriptor);
+        if (plan == null || plannedFor != root) {
+            plan = plan(root);
+            plannedFor = root;
+        }
+        int shard = plan.getOrDefault(key.get(), 0);
+        return shard == Shard.index()
+                ? FilterResult.included("shard " + shard)
+                : FilterResult.excluded("assigned to shard " + shard);
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static Map<String, Integer> plan(TestDescriptor root) {
+        List<String> scenarios = new ArrayList<>();
+        collect(root, scenarios);
+        Map<String, Long> history = ScenarioDurations.load(ScenarioDurations.historyFile());
+        long fallback = ScenarioDurations.median(history);
+
+        scenarios.sort(Comparator.comparingLong((String s) -> history.getOrDefault(s, fallback))
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        int n = Shard.count();
+        long[] load = new long[n];
+        int[] counts = new int[n];
+        Map<String, Integer> plan = new HashMap<>();
+        for (String s : scenarios) {
+            int lightest = 0;
+            for (int i = 1; i < n; i++) if (load[i] < load[lightest]) lightest = i;
+            plan.put(s, lightest);
+            load[lightest] += history.getOrDefault(s, fallback);
+            counts[lightest]++;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            sb.append(String.format("%n[shard]   %s%d: %d scenarios, ~%d s", i == Shard.index() ? "*" : " ", i, counts[i], load[i] / 1000));
+        }
+        System.out.printf("[shard] plan for %d scenarios over %d shards (%d with recorded durations):%s%n",
+                scenarios.size(), n, scenarios.stream().filter(history::containsKey).count(), sb);
+        return plan;
+    }
+
+    private static void collect(TestDescriptor d, List<String> out) {
+        if (d.isTest()) key(d).filter(ImpactFilter::selects).ifPresent(out::add);
+        for (TestDescriptor child : d.getChildren()) collect(child, out);
+    }
+
+    private static TestDescriptor root(TestDescriptor d) {
+        while (d.getParent().isPresent()) d = d.getParent().get();
+        return d;
+    }
+
+    /** Scenario key of a cucumber descriptor, empty for containers and non-feature tests. */
+    static Optional<String> key(TestDescriptor d) {
+        Optional<TestSource> source = d.getSource();
+        if (source.isEmpty()) return Optional.empty();
+        TestSource s = source.get();
+        if (s instanceof ClasspathResourceSource) {
+            ClasspathResourceSource c = (ClasspathResourceSource) s;
+            return c.getPosition().map(p -> ScenarioDurations.key(c.getClasspathResourceName(), p.getLine()));
+        }
+        if (s instanceof FileSource) {
+            FileSource f = (FileSource) s;
+            return f.getPosition().map(FilePosition::getLine).map(line -> ScenarioDurations.key(f.getFile().getPath(), line));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,30 @@
+package support;
+
+import io.cucumber.core.plugin.JsonFormatter;
+import io.cucumber.plugin.EventListener;
+import io.cucumber.plugin.event.EventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Cucumber's json formatter writing to {@code <shard dir>/cucumber.json}. The file is resolved when the
+ * run starts rather than in the plugin list, so junit-platform.properties stays the only place plugins
+ * are listed and shards launched from one compiled tree (run-shards.sh) still write separate reports.
+ */
+public final class ShardJsonReport implements EventListener {
+
+    private final JsonFormatter json;
+
+    public ShardJsonReport() throws IOException {
+        Path file = Shard.dir().resolve("cucumber.json");
+        Files.createDirectories(file.getParent());
+        json = new JsonFormatter(Files.newOutputStream(file));
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        json.setEventPublisher(publisher);
+    }
+}
@@ -0,0 +1,74 @@
+package support;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.TypeToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Merges the per-shard outputs under target/shard-N into one report set:
+ * target/cucumber.json (feature arrays concatenated), target/surefire-reports (JUnit XML, one file
+ * per shard) and the scenario-duration history used to plan the next split.
+ * <p>
+ * Run after all shards finished: {@code java -cp <test-classpath> support.ShardReportMerger [target]}
+ * (run-shards.sh does this).
+ */
+public final class ShardReportMerger {
+
+    private ShardReportMerger() {}
+
+    public static void main(String[] args) throws IOException {
+        Path target = Paths.get(args.length > 0 ? args[0] : "target");
+        List<Path> shards = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(target, "shard-*")) {
+            for (Path dir : dirs) if (Files.isDirectory(dir)) shards.add(dir);
+        }
+        shards.sort(null);
+        if (shards.isEmpty()) {
+            System.out.printf("[shard] nothing to merge under %s%n", target);
+            return;
+        }
+
+        Json json = new Json();
+        List<Object> features = new ArrayList<>();
+        Map<String, Long> durations = new TreeMap<>();
+        Path junitDir = Files.createDirectories(target.resolve("surefire-reports"));
+        int xmlFiles = 0;
+
+        for (Path shard : shards) {
+            Path cucumber = shard.resolve("cucumber.json");
+            if (Files.isRegularFile(cucumber)) {
+                List<Object> part = json.toType(Files.readString(cucumber, StandardCharsets.UTF_8),
+                        new TypeToken<List<Object>>() {}.getType());
+                if (part != null) features.addAll(part);
+            }
+            Path reports = shard.resolve("surefire-reports");
+            if (Files.isDirectory(reports)) {
+                try (DirectoryStream<Path> xmls = Files.newDirectoryStream(reports, "TEST-*.xml")) {
+                    for (Path xml : xmls) {
+                        String name = xml.getFileName().toString().replaceFirst("\\.xml$", "-" + shard.getFileName() + ".xml");
+                        Files.copy(xml, junitDir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+                        xmlFiles++;
+                    }
+                }
+            }
+            durations.putAll(ScenarioDurations.load(shard.resolve("scenario-durations.properties")));
+        }
+
+        Files.write(target.resolve("cucumber.json"), json.toJson(features).getBytes(StandardCharsets.UTF_8));
+        ScenarioDurations.foldIntoHistory(durations);
+        System.out.printf("[shard] merged %d shards: %d features -> %s, %d JUnit files -> %s, %d durations -> %s%n",
+                shards.size(), features.size(), target.resolve("cucumber.json"), xmlFiles, junitDir,
+                durations.size(), ScenarioDurations.historyFile());
+    }
+}
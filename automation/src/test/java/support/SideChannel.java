@@ -0,0 +1,95 @@
+package support;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor for non-browser work (report writing, artifact encoding, log flushing) so scenario threads
+ * hand it off and go straight back to driving the browser.
+ * <p>
+ * Uses a virtual thread per task when the JVM has them (see {@link VirtualThreads}), otherwise a small
+ * daemon pool ({@code -Dsidechannel.threads}, default 2).
+ * {@code -Dsidechannel.enabled=false} runs every task inline. {@link #flush()} is called at suite end.
+ */
+public final class SideChannel {
+
+    private static final Set<CompletableFuture<Void>> PENDING = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong SUBMITTED = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+    private static volatile ExecutorService executor;
+    private static volatile String kind = "inline";
+
+    private SideChannel() {}
+
+    /** Runs {@code task} off the calling thread; failures are logged, never thrown at the caller. */
+    public static CompletableFuture<Void> submit(String what, Runnable task) {
+        SUBMITTED.incrementAndGet();
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                FAILED.incrementAndGet();
+                System.out.printf("[side-channel] %s failed: %s%n", what, e);
+            }
+        };
+        if (!Config.getBool("sidechannel.enabled", true)) {
+            guarded.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> f = CompletableFuture.runAsync(guarded, executor());
+        PENDING.add(f);
+        f.whenComplete((v, e) -> PENDING.remove(f));
+        return f;
+    }
+
+    /** Waits for everything submitted so far ({@code -Dsidechannel.flushTimeoutSec}, default 60). */
+    public static void flush() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Config.getInt("sidechannel.flushTimeoutSec", 60));
+        int waited = 0;
+        while (!PENDING.isEmpty()) {
+            CompletableFuture<?>[] batch = PENDING.toArray(new CompletableFuture<?>[0]);
+            waited += batch.length;
+            try {
+                CompletableFuture.allOf(batch).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                System.out.printf("[side-channel] flush timed out with %d tasks still running%n", PENDING.size());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ignored) {
+                // logged by the task wrapper
+            }
+        }
+        if (SUBMITTED.get() > 0) {
+            System.out.printf("[side-channel] flushed (%s): %d tasks submitted, %d waited on at suite end, %d failed%n",
+                    kind, SUBMITTED.get(), waited, FAILED.get());
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static ExecutorService executor() {
+        if (executor == null) {
+            synchronized (SideChannel.class) {
+                if (executor == null) {
+                    executor = create();
+                    Runtime.getRuntime().addShutdownHook(new Thread(SideChannel::flush, "side-channel-flush"));
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static ExecutorService create() {
+        int threads = Config.getInt("sidechannel.threads", 2);
+        kind = VirtualThreads.describe(threads);
+        return VirtualThreads.newExecutor("side-channel", threads);
+    }
+}
@@ -0,0 +1,230 @@
+package support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records the XHR/fetch calls a real search journey makes, so {@link LoadGenerator} can replay them
+ * without a browser. {@link #install} registers a fetch/XMLHttpRequest wrapper through CDP
+ * ({@code Page.addScriptToEvaluateOnNewDocument}) before the page is opened; {@link #collect} reads
+ * the calls back and removes the wrapper again (pooled sessions are reused).
+ */
+public final class TrafficCapture {
+
+    private static final Json JSON = new Json();
+
+    private static final String RECORDER_JS =
+            "(function () {"
+          + "  if (window.__capturedCalls) return;"
+          + "  var calls = window.__capturedCalls = [];"
+          + "  function abs(u) { try { return new URL(u, location.href).href; } catch (e) { return String(u); } }"
+          + "  function hdrs(h) { var o = {}; if (!h) return o;"
+          + "    if (typeof h.forEach === 'function') h.forEach(function (v, k) { o[k] = v; });"
+          + "    else Object.keys(h).forEach(function (k) { o[k] = h[k]; }); return o; }"
+          + "  var origFetch = window.fetch;"
+          + "  if (origFetch) window.fetch = function (input, init) {"
+          + "    var req = typeof input === 'string' ? null : input;"
+          + "    var c = { kind: 'fetch', method: ((init && init.method) || (req && req.method) || 'GET').toUpperCase(),"
+          + "      url: abs(req ? req.url : input), headers: hdrs((init && init.headers) || (req && req.headers)),"
+          + "      body: init && typeof init.body === 'string' ? init.body : null, startMs: performance.now(), status: null };"
+          + "    calls.push(c);"
+          + "    return origFetch.apply(this, arguments).then(function (r) { c.status = r.status; c.endMs = performance.now(); return r; },"
+          + "      function (e) { c.status = 0; c.endMs = performance.now(); throw e; });"
+          + "  };"
+          + "  var open = XMLHttpRequest.prototype.open, send = XMLHttpRequest.prototype.send, set = XMLHttpRequest.prototype.setRequestHeader;"
+          + "  XMLHttpRequest.prototype.open = function (m, u) { this.__c = { kind: 'xhr', method: String(m).toUpperCase(), url: abs(u), headers: {}, body: null, status: null }; return open.apply(this, arguments); };"
+          + "  XMLHttpRequest.prototype.setRequestHeader = function (k, v) { if (this.__c) this.__c.headers[k] = v; return set.apply(this, arguments); };"
+          + "  XMLHttpRequest.prototype.send = function (b) {"
+          + "    var c = this.__c, x = this;"
+          + "    if (c) { c.body = typeof b === 'string' ? b : null; c.startMs = performance.now(); calls.push(c);"
+          + "      x.addEventListener('loadend', function () { c.status = x.status; c.endMs = performance.now(); }); }"
+          + "    return send.apply(this, arguments);"
+          + "  };"
+          + "})();";
+
+    /** A recorded journey: calls in order with their offsets from the first one. */
+    public static final class Journey {
+        public final String query;
+        public final List<Call> calls;
+
+        public Journey(String query, List<Call> calls) {
+            this.query = query;
+            this.calls = calls;
+        }
+
+        /** Same journey for another search term: q= values that were prefixes of the captured query become prefixes of {@code other}. */
+        public Journey forQuery(String other) {
+            List<Call> out = new ArrayList<>();
+            for (Call c : calls) out.add(c.withUrl(substituteQuery(c.url, query, other)));
+            return new Journey(other, out);
+        }
+
+        /** Points every call at {@code baseUrl}'s scheme/host/port, keeping path and query. */
+        public Journey retarget(String baseUrl) {
+            URI base = URI.create(baseUrl);
+            List<Call> out = new ArrayList<>();
+            for (Call c : calls) {
+                URI u = URI.create(c.url);
+                out.add(c.withUrl(base.getScheme() + "://" + base.getRawAuthority() + u.getRawPath()
+                        + (u.getRawQuery() == null ? "" : "?" + u.getRawQuery())));
+            }
+            return new Journey(query, out);
+        }
+
+        public void save(Path file) {
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("query", query);
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (Call c : calls) list.add(c.toJson());
+            doc.put("calls", list);
+            try {
+                if (file.getParent() != null) Files.createDirectories(file.getParent());
+                Files.writeString(file, JSON.toJson(doc), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not save journey to " + file, e);
+            }
+        }
+
+        public static Journey load(Path file) {
+            try {
+                Map<String, Object> doc = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Json.MAP_TYPE);
+                List<Call> calls = new ArrayList<>();
+                for (Object o : (List<?>) doc.get("calls")) calls.add(Call.from((Map<?, ?>) o));
+                return new Journey(String.valueOf(doc.get("query")), calls);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read journey " + file, e);
+            }
+        }
+    }
+
+    /** One captured request. {@code offsetMs} is relative to the journey's first call. */
+    public static final class Call {
+        public final String method;
+        public final String url;
+        public final Map<String, String> headers;
+        public final String body;
+        public final long offsetMs;
+        public final int status;
+
+        public Call(String method, String url, Map<String, String> headers, String body, long offsetMs, int status) {
+            this.method = method;
+            this.url = url;
+            this.headers = headers;
+            this.body = body;
+            this.offsetMs = offsetMs;
+            this.status = status;
+        }
+
+        /** Path used to group latencies in the load report, e.g. "/api/suggest". */
+        public String endpoint() {
+            return URI.create(url).getPath();
+        }
+
+        Call withUrl(String newUrl) {
+            return new Call(method, newUrl, headers, body, offsetMs, status);
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("method", method);
+            m.put("url", url);
+            m.put("headers", headers);
+            m.put("body", body);
+            m.put("offsetMs", offsetMs);
+            m.put("status", status);
+            return m;
+        }
+
+        static Call from(Map<?, ?> m) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            if (m.get("headers") instanceof Map) {
+                ((Map<?, ?>) m.get("headers")).forEach((k, v) -> headers.put(String.valueOf(k), String.valueOf(v)));
+            }
+            return new Call(String.valueOf(m.get("method")), String.valueOf(m.get("url")), headers,
+                    m.get("body") == null ? null : String.valueOf(m.get("body")),
+                    m.get("offsetMs") == null ? 0 : ((Number) m.get("offsetMs")).longValue(),
+                    m.get("status") == null ? 0 : ((Number) m.get("status")).intValue());
+        }
+    }
+
+    private TrafficCapture() {}
+
+    /** Starts recording on every document the session opens from now on. Returns the CDP script id. */
+    public static String install(WebDriver driver) {
+        Map<String, Object> r = cdp(driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", RECORDER_JS));
+        return String.valueOf(r.get("identifier"));
+    }
+
+    /** Calls recorded on the current document (API calls only, i.e. same-origin /api/ by default). */
+    public static Journey collect(WebDriver driver, String scriptId, String query) {
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript("return window.__capturedCalls || [];");
+            String filter = Config.get("load.capture.pathPrefix", "/api/");
+            List<Call> calls = new ArrayList<>();
+            Double first = null;
+            for (Object o : (List<?>) raw) {
+                Map<?, ?> m = (Map<?, ?>) o;
+                String url = String.valueOf(m.get("url"));
+                if (!URI.create(url).getPath().startsWith(filter)) continue;
+                double start = ((Number) m.get("startMs")).doubleValue();
+                if (first == null) first = start;
+                Map<String, String> headers = new LinkedHashMap<>();
+                if (m.get("headers") instanceof Map) {
+                    ((Map<?, ?>) m.get("headers")).forEach((k, v) -> headers.put(String.valueOf(k), String.valueOf(v)));
+                }
+                calls.add(new Call(String.valueOf(m.get("method")), url, headers,
+                        m.get("body") == null ? null : String.valueOf(m.get("body")),
+                        Math.round(start - first),
+                        m.get("status") == null ? 0 : ((Number) m.get("status")).intValue()));
+            }
+            return new Journey(query, calls);
+        } finally {
+            cdp(driver).executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", scriptId));
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static HasCdp cdp(WebDriver driver) {
+        if (!(driver instanceof HasCdp)) {
+            throw new IllegalStateException("Traffic capture needs a Chromium session with CDP, got " + driver.getClass().getSimpleName());
+        }
+        return (HasCdp) driver;
+    }
+
+    static String substituteQuery(String url, String captured, String other) {
+        URI u = URI.create(url);
+        String rawQuery = u.getRawQuery();
+        if (rawQuery == null) return url;
+        String from = captured.toLowerCase(Locale.ROOT);
+        StringBuilder q = new StringBuilder();
+        for (String pair : rawQuery.split("&")) {
+            if (q.length() > 0) q.append('&');
+            if (pair.startsWith("q=")) {
+                String v = URLDecoder.decode(pair.substring(2), StandardCharsets.UTF_8);
+                if (!v.isEmpty() && from.startsWith(v.toLowerCase(Locale.ROOT))) {
+                    int n = v.length() >= captured.length() ? other.length() : Math.min(v.length(), other.length());
+                    pair = "q=" + URLEncoder.encode(other.substring(0, n), StandardCharsets.UTF_8).replace("+", "%20");
+                }
+            }
+            q.append(pair);
+        }
+        return url.substring(0, url.indexOf('?') + 1) + q;
+    }
+}
@@ -0,0 +1,218 @@
+package support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-keystroke typeahead timings, observed in the page. {@link #install} stamps every {@code input}
+ * event on the search box and every change of a {@code [role='listbox']} panel (options, hidden state,
+ * {@code data-query}); a click on an option is stamped too, followed by the first update of the
+ * results area. {@link #collect} turns that into per-keystroke listbox latencies and counts renders
+ * that were stale (for a query the user had already typed past) or out of order.
+ * <p>
+ * Stale/out-of-order detection needs the panel to say which query it shows ({@code data-query}, as the
+ * fixture does); without it latencies are attributed to the last keystroke before each render.
+ */
+public final class TypeaheadProbe {
+
+    private static final String INSTALL_JS =
+            Readiness.VISIBLE_FN
+          + "if (window.__typeahead && window.__typeahead.obs) window.__typeahead.obs.disconnect();"
+          + "var T = window.__typeahead = { keys: [], renders: [], click: null, results: null, last: null };"
+          + "function within(n, css) { var el = n && (n.nodeType === 1 ? n : n.parentElement); return el && el.closest ? el.closest(css) : null; }"
+          + "function anyVisible(css) { var els = document.querySelectorAll(css);"
+          + "  for (var i = 0; i < els.length; i++) if (visible(els[i])) return els[i]; return null; }"
+          + "document.addEventListener('input', function (e) {"
+          + "  if (window.__typeahead !== T || !e.target || e.target.id !== 'search-input') return;"
+          + "  T.keys.push({ value: e.target.value, t: performance.now() });"
+          + "}, true);"
+          + "document.addEventListener('click', function (e) {"
+          + "  if (window.__typeahead === T && T.click === null && within(e.target, \"[role='option']\")) T.click = performance.now();"
+          + "}, true);"
+          + "T.obs = new MutationObserver(function (records) {"
+          + "  var now = performance.now();"
+          + "  for (var i = 0; i < records.length; i++) {"
+          + "    var box = within(records[i].target, \"[role='listbox']\");"
+          + "    if (box) {"
+          + "      var opts = box.querySelectorAll(\"[role='option']\"), q = box.getAttribute('data-query');"
+          + "      var sig = q + '|' + box.hidden + '|' + box.innerText;"
+          + "      if (sig !== T.last) { T.last = sig; T.renders.push({ t: now, query: q, options: opts.length, shown: visible(box) }); }"
+          + "    }"
+          + "    if (T.click !== null && T.results === null && within(records[i].target, '.search-results, .search-dropdown--no-results')"
+          + "        && (anyVisible('.sports-search-panel .search-dropdown__item:not(.search-dropdown__item--hidden)')"
+          + "            || anyVisible('.sports-search-panel .search-dropdown--no-results .search-no-results'))) T.results = now;"
+          + "  }"
+          + "});"
+          + "T.obs.observe(document.documentElement, { childList: true, subtree: true, characterData: true, attributes: true,"
+          + "  attributeFilter: ['hidden', 'class', 'style', 'data-query'] });";
+
+    private static final String CAUGHT_UP_JS =
+            "var T = window.__typeahead; if (!T || !T.keys.length) return true;"
+          + "var k = T.keys[T.keys.length - 1], v = k.value.trim().toLowerCase();"
+          + "return T.renders.some(function (r) { return r.t >= k.t && (r.query === null || r.query.trim().toLowerCase() === v); });";
+
+    private static final String COLLECT_JS =
+            "var T = window.__typeahead; if (!T) return null;"
+          + "return { keys: T.keys, renders: T.renders, click: T.click, results: T.results };";
+
+    /** One keystroke: the input value after it and how long the listbox took to show that value. */
+    public static final class Keystroke {
+        public final String value;
+        public final double atMs;
+        /** ms to the first render for this value (or, untagged, the first render before the next key); null if superseded. */
+        public final Long latencyMs;
+        public final int options;
+
+        Keystroke(String value, double atMs, Long latencyMs, int options) {
+            this.value = value;
+            this.atMs = atMs;
+            this.latencyMs = latencyMs;
+            this.options = options;
+        }
+    }
+
+    /** Everything observed for one typed query. */
+    public static final class Timing {
+        public final List<Keystroke> keystrokes = new ArrayList<>();
+        public int renders;
+        /** Renders for a query the input had already moved past; null when renders carry no data-query. */
+        public Integer staleRenders;
+        /** Renders for an earlier prefix after a later prefix was already shown; null when untagged. */
+        public Integer outOfOrderRenders;
+        /** Option click to the first results update; null if nothing was clicked or nothing updated. */
+        public Long clickToResultsMs;
+
+        public long maxLatencyMs() {
+            return keystrokes.stream().filter(k -> k.latencyMs != null).mapToLong(k -> k.latencyMs).max().orElse(0);
+        }
+
+        public Keystroke last() {
+            return keystrokes.isEmpty() ? null : keystrokes.get(keystrokes.size() - 1);
+        }
+    }
+
+    private TypeaheadProbe() {}
+
+    /** Arms the probe. Call with the overlay open, before the first keystroke. */
+    public static void install(WebDriver driver) {
+        ((JavascriptExecutor) driver).executeScript(INSTALL_JS);
+    }
+
+    /** True once the panel has rendered for the last keystroke (wait condition). */
+    public static boolean caughtUp(WebDriver driver) {
+        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(CAUGHT_UP_JS));
+    }
+
+    /** True once the results area updated after an option click (wait condition). */
+    public static boolean resultsAfterClick(WebDriver driver) {
+        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(
+                "return !!(window.__typeahead && window.__typeahead.results !== null);"));
+    }
+
+    /** Reads the probe, prints a per-keystroke table and returns the analysis. */
+    public static Timing collect(WebDriver driver, String label) {
+        Object raw = ((JavascriptExecutor) driver).executeScript(COLLECT_JS);
+        Timing timing = analyse(raw);
+        print(label, timing);
+        return timing;
+    }
+
+    /* ---------------- Analysis ---------------- */
+
+    static Timing analyse(Object raw) {
+        Timing out = new Timing();
+        if (!(raw instanceof Map)) return out;
+        Map<?, ?> m = (Map<?, ?>) raw;
+        List<Map<?, ?>> keys = maps(m.get("keys"));
+        keys.removeIf(k -> str(k.get("value")) == null || str(k.get("value")).isBlank()); // clear() before typing
+        List<Map<?, ?>> renders = maps(m.get("renders"));
+        out.renders = renders.size();
+        boolean tagged = renders.stream().anyMatch(r -> r.get("query") != null);
+
+        for (int i = 0; i < keys.size(); i++) {
+            String value = str(keys.get(i).get("value"));
+            double at = num(keys.get(i).get("t"));
+            double nextKeyAt = i + 1 < keys.size() ? num(keys.get(i + 1).get("t")) : Double.MAX_VALUE;
+            Long latency = null;
+            int options = 0;
+            for (Map<?, ?> r : renders) {
+                double t = num(r.get("t"));
+                if (t < at) continue;
+                boolean mine = tagged ? same(str(r.get("query")), value) : t < nextKeyAt;
+                if (mine) {
+                    latency = Math.round(t - at);
+                    options = ((Number) r.get("options")).intValue();
+                    break;
+                }
+            }
+            out.keystrokes.add(new Keystroke(value, at, latency, options));
+        }
+
+        if (tagged) {
+            int stale = 0;
+            int outOfOrder = 0;
+            int highestShown = -1;
+            for (Map<?, ?> r : renders) {
+                String q = str(r.get("query"));
+                if (q == null) continue;
+                double t = num(r.get("t"));
+                int current = -1;
+                int rendered = -1;
+                for (int i = 0; i < keys.size(); i++) {
+                    if (num(keys.get(i).get("t")) <= t) current = i;
+                    if (same(str(keys.get(i).get("value")), q) && num(keys.get(i).get("t")) <= t) rendered = i;
+                }
+                if (rendered < 0) continue; // render from before typing started
+                if (current >= 0 && !same(str(keys.get(current).get("value")), q)) stale++;
+                if (rendered < highestShown) outOfOrder++;
+                highestShown = Math.max(highestShown, rendered);
+            }
+            out.staleRenders = stale;
+            out.outOfOrderRenders = outOfOrder;
+        }
+
+        if (m.get("click") instanceof Number && m.get("results") instanceof Number) {
+            out.clickToResultsMs = Math.round(num(m.get("results")) - num(m.get("click")));
+        }
+        return out;
+    }
+
+    private static void print(String label, Timing timing) {
+        StringBuilder sb = new StringBuilder(String.format("[typeahead] %s: %d keystrokes, %d renders, stale %s, out-of-order %s",
+                label, timing.keystrokes.size(), timing.renders, orUnknown(timing.staleRenders), orUnknown(timing.outOfOrderRenders)));
+        if (timing.clickToResultsMs != null) sb.append(", suggestion to results ").append(timing.clickToResultsMs).append(" ms");
+        double first = timing.keystrokes.isEmpty() ? 0 : timing.keystrokes.get(0).atMs;
+        for (Keystroke k : timing.keystrokes) {
+            sb.append(String.format("%n[typeahead]   +%5d ms  %-20s %s", Math.round(k.atMs - first), "'" + k.value + "'",
+                    k.latencyMs == null ? "superseded" : k.latencyMs + " ms (" + k.options + " options)"));
+        }
+        System.out.println(sb);
+    }
+
+    private static String orUnknown(Integer n) {
+        return n == null ? "n/a" : n.toString();
+    }
+
+    private static boolean same(String a, String b) {
+        return a != null && b != null && a.trim().toLowerCase(Locale.ROOT).equals(b.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static List<Map<?, ?>> maps(Object o) {
+        List<Map<?, ?>> out = new ArrayList<>();
+        if (o instanceof List) for (Object e : (List<?>) o) if (e instanceof Map) out.add((Map<?, ?>) e);
+        return out;
+    }
+
+    private static String str(Object o) {
+        return o == null ? null : o.toString();
+    }
+
+    private static double num(Object o) {
+        return o instanceof Number ? ((Number) o).doubleValue() : 0;
+    }
+}
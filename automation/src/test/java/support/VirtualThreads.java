@@ -0,0 +1,50 @@
+package support;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-per-task executors on virtual threads when the JVM has them (Java 21+; looked up
+ * reflectively because the build targets 17), else a fixed pool of daemon platform threads.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    public static boolean available() {
+        return factoryMethod() != null;
+    }
+
+    /** Virtual thread per task, or {@code fallbackThreads} daemon threads named {@code name-N}. */
+    public static ExecutorService newExecutor(String name, int fallbackThreads) {
+        Method m = factoryMethod();
+        if (m != null) {
+            try {
+                return (ExecutorService) m.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // fall through to platform threads
+            }
+        }
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, fallbackThreads), r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** "virtual threads" or "N platform threads", for log lines. */
+    public static String describe(int fallbackThreads) {
+        return available() ? "virtual threads" : Math.max(1, fallbackThreads) + " platform threads";
+    }
+
+    private static Method factoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
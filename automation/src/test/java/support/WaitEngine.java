@@ -0,0 +1,215 @@
+package support;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Shared polling engine behind {@link Waits} and the page objects.
+ * <ul>
+ *   <li>Backoff: checks immediately, then polls at 20 ms growing ×1.6 up to 400 ms, so fast
+ *       conditions resolve within a few ms and slow ones don't flood the wire.</li>
+ *   <li>Learned settle time: each condition key keeps an EWMA of how long it took to become true
+ *       (persisted across runs, one file per {@link Config#environment()} unless {@code -Dwait.history}
+ *       names one); when the expected settle time is long the engine sleeps through most of it in one
+ *       go and polls fast around it.</li>
+ *   <li>Step deadline: every wait is capped by what's left of the current step's budget
+ *       ({@code -Dstep.deadline.sec}, default 90), instead of stacking per-locator timeouts.</li>
+ * </ul>
+ * Every wait books its duration and poll count in {@link WaitLedger} and {@link RunHistory}; per-key
+ * totals are printed at the end of the run.
+ */
+public final class WaitEngine {
+
+    private static final long FIRST_POLL_MS = 20;
+    private static final double BACKOFF = 1.6;
+    private static final long MAX_POLL_MS = 400;
+    private static final double EWMA_WEIGHT = 0.3;
+
+    private static final ThreadLocal<Long> STEP_DEADLINE = new ThreadLocal<>();
+    private static final Map<String, Double> SETTLE_MS = new ConcurrentHashMap<>(loadHistory());
+    private static final Map<String, LongAdder[]> TOTALS = new ConcurrentHashMap<>(); // key -> {waits, nanos, polls, timeouts}
+
+    private WaitEngine() {}
+
+    /* ---------------- Step deadline ---------------- */
+
+    /** Starts the calling thread's step budget (called by {@link WaitReportPlugin}). */
+    public static void startStep() {
+        STEP_DEADLINE.set(System.nanoTime() + TimeUnit.SECONDS.toNanos(Config.getInt("step.deadline.sec", 90)));
+    }
+
+    /**
+     * Drops the calling thread's step budget. Called by {@link WaitReportPlugin} when a step ends, and by
+     * long-running steps that bound each wait themselves (bulk search) so the 90 s step budget doesn't
+     * turn every wait after it into a 0 ms timeout.
+     */
+    public static void clearStep() {
+        STEP_DEADLINE.remove();
+    }
+
+    /** The requested timeout, cut down to what's left of the step budget (never below 0). */
+    public static long capToStep(long timeoutMs) {
+        Long deadline = STEP_DEADLINE.get();
+        if (deadline == null) return timeoutMs;
+        long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        return Math.max(0, Math.min(timeoutMs, left));
+    }
+
+    /* ---------------- Waiting ---------------- */
+
+    /**
+     * Polls until the condition returns a non-null, non-FALSE value.
+     *
+     * @param key identifies the condition for settle-time learning and reporting, e.g. "ResultsPage.waitLoaded"
+     * @throws TimeoutException when the (step-capped) timeout runs out
+     */
+    public static <T> T until(WebDriver driver, String key, Duration timeout, Function<? super WebDriver, T> condition) {
+        long timeoutMs = capToStep(timeout.toMillis());
+        long t0 = System.nanoTime();
+        long end = t0 + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        long interval = FIRST_POLL_MS;
+        int polls = 0;
+        RuntimeException last = null;
+        Double settle = SETTLE_MS.get(key);
+        boolean skippedAhead = false;
+        boolean timedOut = false;
+        try {
+            while (true) {
+                polls++;
+                try {
+                    T v = condition.apply(driver);
+                    if (v != null && !Boolean.FALSE.equals(v)) {
+                        learn(key, System.nanoTime() - t0);
+                        return v;
+                    }
+                } catch (NotFoundException | StaleElementReferenceException e) {
+                    last = e;
+                }
+                long now = System.nanoTime();
+                if (now >= end) {
+                    timedOut = true;
+                    throw new TimeoutException(String.format("%s not met after %d ms (%d polls)%s",
+                            key, TimeUnit.NANOSECONDS.toMillis(now - t0), polls,
+                            timeoutMs < timeout.toMillis() ? ", capped by step deadline" : ""), last);
+                }
+                long sleepMs = interval;
+                // Long, well-known settle time: sleep most of it in one go, then poll tightly.
+                if (!skippedAhead && settle != null && settle > 4 * FIRST_POLL_MS) {
+                    sleepMs = Math.max(interval, (long) (settle * 0.7) - TimeUnit.NANOSECONDS.toMillis(now - t0));
+                    skippedAhead = true;
+                } else {
+                    interval = Math.min(MAX_POLL_MS, (long) (interval * BACKOFF));
+                }
+                sleepMs = Math.min(sleepMs, TimeUnit.NANOSECONDS.toMillis(end - now) + 1);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TimeoutException("Interrupted while waiting for " + key, e);
+                }
+            }
+        } finally {
+            long nanos = System.nanoTime() - t0;
+            WaitLedger.record(nanos, polls);
+            tally(key, nanos, polls, timedOut);
+        }
+    }
+
+    /** Books an in-page wait (one async script, one "poll") done outside the engine. */
+    public static void recordExternal(String key, long nanos, boolean satisfied) {
+        WaitLedger.record(nanos, 1);
+        tally(key, nanos, 1, !satisfied);
+        if (satisfied) learn(key, nanos);
+    }
+
+    /** Per-key waits/time/polls summary, and persists the learned settle times for the next run. */
+    public static void finishRun() {
+        if (!TOTALS.isEmpty()) {
+            System.out.println("[waits] ---- per-condition summary ----");
+            new TreeMap<>(TOTALS).forEach((key, t) -> {
+                long n = t[0].sum();
+                System.out.printf("[waits] %-45s waits=%-4d avg=%5d ms polls/wait=%.1f timeouts=%d settle~%s ms%n",
+                        key, n, n == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(t[1].sum()) / n,
+                        n == 0 ? 0.0 : (double) t[2].sum() / n, t[3].sum(),
+                        SETTLE_MS.containsKey(key) ? Math.round(SETTLE_MS.get(key)) : "-");
+            });
+        }
+        saveHistory();
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static void learn(String key, long nanos) {
+        double ms = nanos / 1_000_000.0;
+        SETTLE_MS.merge(key, ms, (old, now) -> old * (1 - EWMA_WEIGHT) + now * EWMA_WEIGHT);
+    }
+
+    private static void tally(String key, long nanos, int polls, boolean timedOut) {
+        LongAdder[] t = TOTALS.computeIfAbsent(key, k -> new LongAdder[]{new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()});
+        t[0].increment();
+        t[1].add(nanos);
+        t[2].add(polls);
+        if (timedOut) t[3].increment();
+        RunHistory.waited(key, nanos, !timedOut);
+    }
+
+    /** One file per environment: settle times learned on the live site would stall the fixture, and the reverse. */
+    private static Path historyFile() {
+        return Paths.get(Config.get("wait.history", Paths.get(System.getProperty("user.home"), ".cache", "sportsbook-search",
+                "wait-settle-times-" + Config.environment() + ".properties").toString()));
+    }
+
+    private static Map<String, Double> loadHistory() {
+        Map<String, Double> out = new ConcurrentHashMap<>();
+        Path file = historyFile();
+        if (!Files.isRegularFile(file)) return out;
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(r);
+            props.forEach((k, v) -> {
+                try {
+                    out.put(k.toString(), Double.parseDouble(v.toString()));
+                } catch (NumberFormatException ignored) {}
+            });
+        } catch (IOException e) {
+            System.out.printf("[waits] ignoring unreadable settle-time history %s: %s%n", file, e.getMessage());
+        }
+        return out;
+    }
+
+    private static void saveHistory() {
+        if (SETTLE_MS.isEmpty()) return;
+        Path file = historyFile();
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Properties props = new Properties();
+            SETTLE_MS.forEach((k, v) -> props.setProperty(k, String.valueOf(Math.round(v))));
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "settle", ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(w, "Learned settle time (ms, EWMA) per wait condition");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.printf("[waits] could not save settle-time history %s: %s%n", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package support;
+
+/**
+ * Per-thread tally of time spent blocked in waits during the current step. {@link WaitEngine} adds to
+ * it; {@link WaitReportPlugin} resets it when a step starts and reads it when the step finishes.
+ */
+public final class WaitLedger {
+
+    private static final ThreadLocal<long[]> TL = ThreadLocal.withInitial(() -> new long[3]); // {nanos, count, polls}
+
+    private WaitLedger() {}
+
+    public static void record(long nanos, int polls) {
+        long[] l = TL.get();
+        l[0] += nanos;
+        l[1]++;
+        l[2] += polls;
+    }
+
+    public static long waitedNanos() {
+        return TL.get()[0];
+    }
+
+    public static long waitCount() {
+        return TL.get()[1];
+    }
+
+    public static long pollCount() {
+        return TL.get()[2];
+    }
+
+    public static void reset() {
+        long[] l = TL.get();
+        l[0] = 0;
+        l[1] = 0;
+        l[2] = 0;
+    }
+}
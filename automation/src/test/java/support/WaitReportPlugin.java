@@ -0,0 +1,65 @@
+package support;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports how much of each step's wall-clock was spent waiting. Concurrent listener, so events
+ * arrive on the worker thread that runs the step and {@link WaitLedger} lines up with it.
+ */
+public class WaitReportPlugin implements ConcurrentEventListener {
+
+    private final Map<String, LongAdder[]> totals = new ConcurrentHashMap<>(); // step -> {waitNanos, stepNanos, runs}
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepStarted.class, e -> {
+            WaitLedger.reset();
+            WaitEngine.startStep();
+        });
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, e -> {
+            printSummary();
+            WaitEngine.finishRun();
+        });
+    }
+
+    private void onStepFinished(TestStepFinished e) {
+        WaitEngine.clearStep();
+        if (!(e.getTestStep() instanceof PickleStepTestStep)) return;
+        String step = ((PickleStepTestStep) e.getTestStep()).getStep().getText();
+        long waited = WaitLedger.waitedNanos();
+        long took = e.getResult().getDuration().toNanos();
+        System.out.printf("[wait] %s: waited %d ms of %d ms (%d waits, %d polls)%n",
+                step, ms(waited), ms(took), WaitLedger.waitCount(), WaitLedger.pollCount());
+
+        LongAdder[] t = totals.computeIfAbsent(step, k -> new LongAdder[]{new LongAdder(), new LongAdder(), new LongAdder()});
+        t[0].add(waited);
+        t[1].add(took);
+        t[2].increment();
+    }
+
+    private void printSummary() {
+        if (totals.isEmpty()) return;
+        System.out.println("[wait] ---- per-step waiting summary ----");
+        new TreeMap<>(totals).forEach((step, t) -> {
+            long took = t[1].sum();
+            System.out.printf("[wait] %-50s runs=%d waited=%d ms of %d ms (%d%%)%n",
+                    step, t[2].sum(), ms(t[0].sum()), ms(took), took == 0 ? 0 : 100 * t[0].sum() / took);
+        });
+    }
+
+    private static long ms(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
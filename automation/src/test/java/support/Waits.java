@@ -1,31 +1,44 @@
 package support;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.FluentWait;
 
 import java.time.Duration;
-import java.util.NoSuchElementException;
 import java.util.function.Function;
 
 public class Waits {
+
+    /** Adaptive wait (see {@link WaitEngine}); the condition is keyed by its calling method. */
     public static <T> T waitFor(WebDriver driver, int timeoutSec, Function<WebDriver, T> condition) {
-        return new FluentWait<>(driver)
-                .withTimeout(Duration.ofSeconds(timeoutSec))
-                .pollingEvery(Duration.ofMillis(200))
-                .ignoring(NoSuchElementException.class)
-                .ignoring(StaleElementReferenceException.class)
-                .until(condition);
+        return waitFor(driver, callerKey(), timeoutSec, condition);
+    }
+
+    public static <T> T waitFor(WebDriver driver, String key, int timeoutSec, Function<WebDriver, T> condition) {
+        return WaitEngine.until(driver, key, Duration.ofSeconds(timeoutSec), condition);
     }
 
+    /** First displayed match among the locators, under one deadline for all of them. */
     public static WebElement firstPresent(WebDriver driver, int timeoutSec, By... locators) {
-        return waitFor(driver, timeoutSec, d -> {
+        return waitFor(driver, callerKey() + ">firstPresent", timeoutSec, d -> {
             for (By by : locators) {
-                try {
-                    WebElement el = d.findElement(by);
+                for (WebElement el : d.findElements(by)) {
                     if (el.isDisplayed()) return el;
-                } catch (Exception ignored) {}
+                }
             }
             return null;
         });
     }
+
+    /** "HomePage.focusSearch" for the page-object method that asked for the wait. */
+    static String callerKey() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> !f.getClassName().startsWith("support."))
+                .findFirst()
+                .map(f -> {
+                    String cls = f.getClassName();
+                    cls = cls.substring(cls.lastIndexOf('.') + 1);
+                    int inner = cls.indexOf('$');
+                    return (inner > 0 ? cls.substring(0, inner) : cls) + "." + f.getMethodName();
+                })
+                .orElse("wait"));
+    }
 }
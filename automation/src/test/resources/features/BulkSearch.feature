@@ -0,0 +1,9 @@
+Feature: Bulk search
+
+  # Excluded from the default run (see cucumber.filter.tags in pom.xml):
+  #   mvn test -Dcucumber.filter.tags=@bulk -Dbulk.corpus=/path/to/queries.jsonl -Dbulk.sessions=4
+  @bulk
+  Scenario: Every corpus query returns its expected result count
+    When I run every query from the bulk search corpus
+    Then the bulk search throughput should be reported
+    And every bulk query should return its expected result count
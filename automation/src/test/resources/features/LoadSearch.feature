@@ -0,0 +1,9 @@
+Feature: Search backend under load
+
+  # Excluded from the default run (see cucumber.filter.tags in pom.xml):
+  #   mvn test -Dcucumber.filter.tags=@load -Dbase.url=local -Dload.rate=500 -Dload.durationSec=60
+  @load @lean
+  Scenario: Replayed search journeys keep the error rate low
+    Given a search journey for "Arsenal" is captured from a browser session
+    When the journey is replayed without browsers at the configured arrival rate
+    Then the load error rate should stay below 1.0 percent
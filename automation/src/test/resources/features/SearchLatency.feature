@@ -0,0 +1,14 @@
+Feature: Search latency
+
+  Background:
+    Given I open the Sportingbull homepage
+
+  @latency
+  Scenario Outline: Search timings for "<query>" stay within budget
+    When I search for "<query>" 3 times
+    Then the search latency for "<query>" should be within budget
+
+    Examples:
+      | query   |
+      | Arsenal |
+      | zzzxx   |
@@ -0,0 +1,16 @@
+Feature: Typeahead suggestions
+
+  Background:
+    Given I open the Sportingbull homepage
+
+  @typeahead
+  Scenario: Suggestions keep up with per-keystroke typing
+    When I type "Arsenal" one key at a time
+    Then every keystroke should update the suggestions within 1500 ms
+    And no stale or out-of-order suggestions should be rendered
+
+  @typeahead
+  Scenario: Picking a suggestion opens its results
+    When I type "Arsen" one key at a time
+    And I pick the first suggestion
+    Then the search results should open within 3000 ms of picking the suggestion
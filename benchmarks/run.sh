@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Builds and runs the JMH benchmarks, keeping every run for trend tracking:
+#   results/<utc-time>-<commit>.csv   raw JMH CSV of this run
+#   results/history.csv               one row per benchmark per run (commit, date + JMH columns)
+#
+#   ./run.sh                      all benchmarks
+#   ./run.sh TextParsing -f 2     any JMH arguments (regex filter, forks, ...)
+set -euo pipefail
+cd "$(dirname "$0")"
+
+(cd ../automation && mvn -B -q install -DskipTests)
+mvn -B -q package
+
+commit="$(git rev-parse --short HEAD 2>/dev/null || echo unknown)"
+stamp="$(date -u +%Y%m%dT%H%M%SZ)"
+mkdir -p results
+run="results/${stamp}-${commit}.csv"
+
+java -jar target/benchmarks.jar -rf csv -rff "$run" "$@"
+
+if [[ ! -f results/history.csv ]]; then
+  echo "\"Commit\",\"Date\",$(head -n 1 "$run")" > results/history.csv
+fi
+tail -n +2 "$run" | sed "s/^/\"${commit}\",\"${stamp}\",/" >> results/history.csv
+echo "results: $run (appended to results/history.csv)"
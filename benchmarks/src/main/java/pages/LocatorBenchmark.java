@@ -0,0 +1,99 @@
+package pages;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import support.BrowserProfile;
+import support.DriverFactory;
+import support.FixtureServer;
+import support.Readiness;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ways of asking "how many result rows are visible in the search overlay" against the recorded
+ * page served by {@link FixtureServer}, in one headless (LEAN) Chrome with the "Arsenal" results open:
+ * WebDriver CSS/XPath lookups with per-element isDisplayed() round-trips versus the single-script
+ * {@link ResultsPage#snapshot()} and the in-page {@link Readiness} probe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocatorBenchmark {
+
+    private static final By ROWS_CSS = By.cssSelector(ResultsPage.OVERLAY_PANES + " " + ResultsPage.VISIBLE_RESULT_ROWS);
+    private static final By ROWS_XPATH = By.xpath(
+            "//div[contains(@class,'cdk-overlay-pane') and contains(@class,'sports-search-panel')]"
+          + "//*[contains(concat(' ', normalize-space(@class), ' '), ' search-dropdown__item ')"
+          + " and not(contains(@class,'search-dropdown__item--hidden'))]");
+
+    private WebDriver driver;
+    private ResultsPage results;
+
+    @Setup(Level.Trial)
+    public void openResults() {
+        driver = DriverFactory.create(BrowserProfile.LEAN);
+        HomePage home = new HomePage(driver);
+        home.open(FixtureServer.start().url() + "/sportsbook");
+        home.focusSearch(15);
+        home.typeQuery("Arsenal", 10);
+        home.submitEnter(5);
+        results = new ResultsPage(driver, 30);
+        results.waitLoaded();
+        if (results.snapshot().visibleRows() == 0) {
+            throw new IllegalStateException("fixture page shows no result rows; benchmark would measure nothing");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        if (driver != null) driver.quit();
+        FixtureServer.stop();
+    }
+
+    @Benchmark
+    public int cssFindElements() {
+        return driver.findElements(ROWS_CSS).size();
+    }
+
+    @Benchmark
+    public int cssFindElementsIsDisplayed() {
+        int n = 0;
+        for (WebElement row : driver.findElements(ROWS_CSS)) if (row.isDisplayed()) n++;
+        return n;
+    }
+
+    @Benchmark
+    public int xpathFindElementsIsDisplayed() {
+        int n = 0;
+        for (WebElement row : driver.findElements(ROWS_XPATH)) if (row.isDisplayed()) n++;
+        return n;
+    }
+
+    @Benchmark
+    public int executeScriptSnapshot() {
+        return results.snapshot().visibleRows();
+    }
+
+    @Benchmark
+    public void readinessFirstVisible(Blackhole bh) {
+        bh.consume(Readiness.firstVisible(driver, 1000, List.of(ROWS_CSS)));
+    }
+}
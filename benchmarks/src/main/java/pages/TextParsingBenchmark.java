@@ -0,0 +1,76 @@
+package pages;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Text helpers that run on every wait poll: {@link ResultsPage#normalize} and the "Search results (N)"
+ * parsing in {@link OverlaySnapshot#resultCount()}, each next to the per-call Pattern compilation
+ * they replaced, so the saving stays visible in the tracked results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextParsingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Banner {
+        /** Banner text as the overlay renders it (NBSPs, line breaks, padding). */
+        @Param({
+                "No\u00A0results\u00A0found",
+                "  Sorry,\u00A0no results\u00A0found for\n   “zzzxx”.\u00A0 Please try\tanother search.  "
+        })
+        public String text;
+    }
+
+    /** The results count header; kept apart from {@link Banner} so it isn't re-run per banner text. */
+    @State(Scope.Benchmark)
+    public static class Count {
+        OverlaySnapshot snapshot;
+        String countText;
+
+        @Setup
+        public void setUp() {
+            countText = "Search results (128)";
+            snapshot = new OverlaySnapshot("cdk-overlay-1", 9, countText, null, false, false, "Arsenal", true);
+        }
+    }
+
+    @Benchmark
+    public String normalize(Banner banner) {
+        return ResultsPage.normalize(banner.text);
+    }
+
+    /** The previous implementation: String.replaceAll compiles the pattern on every call. */
+    @Benchmark
+    public String normalizeReplaceAll(Banner banner) {
+        return banner.text.replace('\u00A0', ' ').replaceAll("\\s+", " ").trim().toLowerCase();
+    }
+
+    @Benchmark
+    public int resultCount(Count count) {
+        return count.snapshot.resultCount();
+    }
+
+    /** The previous getResultCountVisible: Pattern.compile per call. */
+    @Benchmark
+    public int resultCountCompilePerCall(Count count) {
+        Matcher m = Pattern.compile("\\((\\d+)\\)").matcher(count.countText);
+        return m.find() ? Integer.parseInt(m.group(1)) : 0;
+    }
+}